@@ -13,9 +13,13 @@ import org.night.nightchat.chat.ChatService;
 import org.night.nightchat.chat.MessageFilterService;
 import org.night.nightchat.command.ChatCommands;
 import org.night.nightchat.config.GlobalConfig;
+import org.night.nightchat.integration.IntegrationGuards;
 import org.night.nightchat.integration.LuckPermsHook;
 import org.night.nightchat.integration.NightEconomyHook;
+import org.night.nightchat.lang.MessageCatalog;
 import org.night.nightchat.persist.PlayerStateStore;
+import org.night.nightchat.placeholder.BuiltinPlaceholders;
+import org.night.nightchat.placeholder.PlaceholderRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -23,24 +27,31 @@ import org.apache.logging.log4j.Logger;
 public class Nightchat {
     public static final String MODID = "nightchat";
     public static final Logger LOGGER = LogManager.getLogger(MODID);
+    // Registro público de placeholders (%namespace_...%): outros mods registram aqui
+    public static final PlaceholderRegistry PLACEHOLDERS = new PlaceholderRegistry();
 
     private final ChannelManager channelManager;
+    private final IntegrationGuards integrationGuards;
     private final LuckPermsHook luckPermsHook;
     private final NightEconomyHook economyHook;
 
     private final GlobalConfig globalConfig;
     private final MessageFilterService filters;
     private final PlayerStateStore playerStateStore;
+    private final MessageCatalog messages;
     private final ChatService chatService;
 
     public Nightchat() {
-        this.luckPermsHook = new LuckPermsHook();
-        this.economyHook = new NightEconomyHook();
+        this.integrationGuards = new IntegrationGuards();
+        this.luckPermsHook = new LuckPermsHook(integrationGuards);
+        this.economyHook = new NightEconomyHook(integrationGuards);
         this.globalConfig = new GlobalConfig();
         this.channelManager = new ChannelManager();
         this.filters = new MessageFilterService(globalConfig);
         this.playerStateStore = new PlayerStateStore();
-        this.chatService = new ChatService(channelManager, luckPermsHook, economyHook, globalConfig, filters, playerStateStore);
+        this.messages = new MessageCatalog();
+        BuiltinPlaceholders.registerAll(PLACEHOLDERS);
+        this.chatService = new ChatService(channelManager, luckPermsHook, economyHook, globalConfig, filters, playerStateStore, PLACEHOLDERS, messages);
 
         NeoForge.EVENT_BUS.addListener(this::onAboutToStart);
         NeoForge.EVENT_BUS.addListener(this::onRegisterCommands);
@@ -61,7 +72,10 @@ public class Nightchat {
 
         // Load configs
         globalConfig.loadOrCreateDefaults(event.getServer());
+        integrationGuards.configure(globalConfig.integrationTimeoutMs, globalConfig.integrationSlowMs,
+                globalConfig.integrationFailures, globalConfig.integrationOpenSeconds);
         filters.rebuildFromConfig();
+        messages.load(event.getServer(), globalConfig.defaultLocale);
 
         // Channels
         channelManager.loadOrCreateDefaults(event.getServer());
@@ -71,7 +85,7 @@ public class Nightchat {
     }
 
     private void onRegisterCommands(RegisterCommandsEvent event) {
-        ChatCommands.register(event.getDispatcher(), channelManager, chatService, luckPermsHook, globalConfig);
+        ChatCommands.register(event.getDispatcher(), channelManager, chatService, luckPermsHook, globalConfig, messages, integrationGuards);
     }
 
     private void onServerStopping(ServerStoppingEvent event) {
@@ -0,0 +1,44 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Público de uma mensagem, calculado na thread do servidor (grade, slots e bitsets só são
+ * lidos lá) e entregue ao worker junto com o texto. Imutável depois de montado.
+ */
+final class Audience {
+    final ServerPlayer sender;
+    final Set<ServerPlayer> recipients;    // formato principal (inclui o remetente)
+    final List<List<ServerPlayer>> banded; // ouvintes por faixa de distância, ou null
+    final List<ServerPlayer> spies;        // espiões que não recebem o formato principal nem faixa
+    final Set<ServerPlayer> dimmed;        // destinatários que ignoram/silenciaram o remetente mas ainda veem
+
+    Audience(ServerPlayer sender, Set<ServerPlayer> recipients, List<List<ServerPlayer>> banded,
+             List<ServerPlayer> spies, Set<ServerPlayer> dimmed) {
+        this.sender = sender;
+        this.recipients = recipients;
+        this.banded = banded;
+        this.spies = spies;
+        this.dimmed = dimmed;
+    }
+
+    boolean hears(ServerPlayer p) {
+        if (recipients.contains(p)) return true;
+        if (banded != null) {
+            for (List<ServerPlayer> band : banded) if (band.contains(p)) return true;
+        }
+        return false;
+    }
+
+    // Ninguém além do próprio remetente recebeu a mensagem
+    boolean onlySender() {
+        if (recipients.size() != 1 || !recipients.contains(sender)) return false;
+        if (banded != null) {
+            for (List<ServerPlayer> band : banded) if (!band.isEmpty()) return false;
+        }
+        return true;
+    }
+}
@@ -6,6 +6,7 @@ public class Channel {
     public final String id;
     public final ChannelType type;
     public final Set<String> commands = new LinkedHashSet<>();
+    public final Set<String> prefixes = new LinkedHashSet<>(); // símbolos que roteiam sem espaço (ex.: "!oi")
     public final String permission;
 
     public final double radius;
@@ -23,13 +24,32 @@ public class Channel {
     public final String format;   // string única (já resolvida da lista do toml)
     public final String spyFormat;
 
+    // Formatos pré-compilados no carregamento (ChannelManager.loadOne)
+    public final FormatTemplate formatTemplate;
+    public final FormatTemplate spyTemplate;
+
     // Novo: tags por canal
     public final Map<String, TagDefinition> tags; // id -> def
 
+    // Faixas além do raio (só LOCAL), em ordem crescente de distância
+    public final List<DistanceBand> bands;
+
+    // Envios do canal saem no bundle de fim de tick; desligue para canais sensíveis a latência
+    public final boolean bundle;
+
+    // Orçamento do componente serializado, em bytes (0 = sem limite): acima dele os hovers mais caros saem
+    public final int maxBytes;
+
+    // Índices em PermissionBits, preenchidos no index() (-1 = ainda não indexado: consulta direta)
+    public int permissionBit = -1;
+    public int bypassDelayBit = -1;
+
     public Channel(String id, ChannelType type, String permission,
                    double radius, double delaySeconds, boolean mentionable, boolean highlight, boolean preventCapslock,
                    boolean currencyEnabled, String currencyId, double minBalance, double messageCost, boolean showMessageCost,
-                   String format, String spyFormat, Collection<String> commands, Map<String, TagDefinition> tags) {
+                   String format, String spyFormat, FormatTemplate formatTemplate, FormatTemplate spyTemplate,
+                   Collection<String> commands, Collection<String> prefixes, Map<String, TagDefinition> tags,
+                   List<DistanceBand> bands, boolean bundle, int maxBytes) {
         this.id = id;
         this.type = type;
         this.permission = permission;
@@ -45,8 +65,28 @@ public class Channel {
         this.showMessageCost = showMessageCost;
         this.format = format;
         this.spyFormat = spyFormat;
+        this.formatTemplate = formatTemplate == null ? FormatTemplate.EMPTY : formatTemplate;
+        this.spyTemplate = spyTemplate == null ? FormatTemplate.EMPTY : spyTemplate;
         if (commands != null) this.commands.addAll(commands);
+        if (prefixes != null) this.prefixes.addAll(prefixes);
         this.tags = tags == null ? Map.of() : new LinkedHashMap<>(tags);
+        this.bands = bands == null ? List.of() : List.copyOf(bands);
+        this.bundle = bundle;
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    // Maior alcance do canal: o raio ou a última faixa
+    public double outerRadius() {
+        double r = radius <= 0 ? 100.0 : radius;
+        return bands.isEmpty() ? r : Math.max(r, bands.get(bands.size() - 1).distance);
+    }
+
+    // Índice da faixa para a distância ao quadrado (além do raio), ou -1 se fora de todas
+    public int bandFor(double distSqr) {
+        for (int i = 0; i < bands.size(); i++) {
+            if (distSqr <= bands.get(i).distanceSqr) return i;
+        }
+        return -1;
     }
 
     public TagDefinition getTag(String id) {
@@ -12,8 +12,13 @@ import java.util.*;
 
 public class ChannelManager {
     private final Map<String, Channel> byId = new LinkedHashMap<>();
+    // Roteamento publicado a cada carga: alias em minúsculas -> canal, símbolo -> canal
+    private volatile Map<String, Channel> aliases = Map.of();
+    private volatile Map<Character, Channel> prefixes = Map.of();
 
     public Channel get(String id) { return byId.get(id); }
+    public Channel byAlias(String lowerAlias) { return aliases.get(lowerAlias); }
+    public Channel byPrefix(char symbol) { return prefixes.get(symbol); }
     public Channel require(String id) { return Objects.requireNonNull(get(id)); }
     public Collection<Channel> all() { return Collections.unmodifiableCollection(byId.values()); }
 
@@ -41,6 +46,34 @@ public class ChannelManager {
         }
         // Garantir que pelo menos o 'local' exista
         byId.computeIfAbsent("local", k -> fallbackLocal());
+        publishRouting();
+    }
+
+    private void publishRouting() {
+        Map<String, Channel> a = new HashMap<>();
+        Map<Character, Channel> p = new HashMap<>();
+        for (Channel ch : byId.values()) {
+            for (String alias : ch.commands) {
+                if (alias == null || alias.isBlank()) continue;
+                Channel prev = a.putIfAbsent(alias.toLowerCase(Locale.ROOT), ch);
+                if (prev != null && prev != ch) {
+                    Nightchat.LOGGER.warn("Alias '{}' of channel '{}' already used by '{}'", alias, ch.id, prev.id);
+                }
+            }
+            for (String symbol : ch.prefixes) {
+                if (symbol == null || symbol.length() != 1 || Character.isLetterOrDigit(symbol.charAt(0))
+                        || Character.isWhitespace(symbol.charAt(0))) {
+                    Nightchat.LOGGER.warn("Ignoring prefix '{}' of channel '{}': must be a single symbol", symbol, ch.id);
+                    continue;
+                }
+                Channel prev = p.putIfAbsent(symbol.charAt(0), ch);
+                if (prev != null && prev != ch) {
+                    Nightchat.LOGGER.warn("Prefix '{}' of channel '{}' already used by '{}'", symbol, ch.id, prev.id);
+                }
+            }
+        }
+        aliases = Map.copyOf(a);
+        prefixes = Map.copyOf(p);
     }
 
     private boolean hasAnyToml(Path base) throws IOException {
@@ -71,11 +104,14 @@ public class ChannelManager {
             String permission = String.valueOf(cfg.getOrElse("permission", "nightchat.channel." + id));
 
             List<String> commands = toStrList(cfg.get("commands"));
+            List<String> prefixes = toStrList(cfg.get("prefixes"));
             double distance = toDouble(cfg.getOrElse("distance", 0.0));
             double delay = toDouble(cfg.getOrElse("delay-message", 0.0));
             boolean mentionable = toBool(cfg.getOrElse("mentionable", true));
             boolean highlight = toBool(cfg.getOrElse("highlight", false));
             boolean preventCaps = toBool(cfg.getOrElse("prevent-capslock", false));
+            boolean bundle = toBool(cfg.getOrElse("bundle-packets", type != ChannelType.STAFF));
+            int maxBytes = (int) toDouble(cfg.getOrElse("max-bytes", 0));
 
             boolean currency = toBool(cfg.getOrElse("currency", false));
             String currencyId = String.valueOf(cfg.getOrElse("type-currency", "money"));
@@ -88,11 +124,16 @@ public class ChannelManager {
 
             Map<String, TagDefinition> tags = TagLoader.load(cfg);
 
+            // Compila os formatos uma vez; a renderização por mensagem só preenche os slots
+            FormatTemplate formatTpl = FormatTemplate.compile(format, tags);
+            FormatTemplate spyTpl = FormatTemplate.compile(spy, tags);
+            List<DistanceBand> bands = type == ChannelType.LOCAL ? loadBands(cfg, distance <= 0 ? 100.0 : distance, tags) : List.of();
+
             Channel ch = new Channel(
                     id, type, permission,
                     distance, delay, mentionable, highlight, preventCaps,
                     currency, currencyId, minBalance, msgCost, showCost,
-                    format, spy, commands, tags
+                    format, spy, formatTpl, spyTpl, commands, prefixes, tags, bands, bundle, maxBytes
             );
 
             byId.put(ch.id, ch);
@@ -102,6 +143,25 @@ public class ChannelManager {
         }
     }
 
+    // [[Bands]] distance = 30.0, format = ["..."]: faixas além do raio do canal, ordenadas por distância
+    private static List<DistanceBand> loadBands(CommentedFileConfig cfg, double radius, Map<String, TagDefinition> tags) {
+        Object v = cfg.get("Bands");
+        if (!(v instanceof List<?> list)) return List.of();
+        List<DistanceBand> out = new ArrayList<>();
+        for (Object o : list) {
+            if (!(o instanceof UnmodifiableConfig uc)) continue;
+            double d = toDouble(uc.get("distance"));
+            String fmt = firstOrEmpty(uc.get("format"));
+            if (d <= radius || fmt.isEmpty()) {
+                Nightchat.LOGGER.warn("Ignoring band at {} blocks: must be beyond distance {} and have a format", d, radius);
+                continue;
+            }
+            out.add(new DistanceBand(d, fmt, FormatTemplate.compile(fmt, tags)));
+        }
+        out.sort(Comparator.comparingDouble(b -> b.distance));
+        return out;
+    }
+
     @SuppressWarnings("unchecked")
     private static List<String> toStrList(Object o) {
         if (o instanceof List<?> l) {
@@ -133,11 +193,13 @@ public class ChannelManager {
     }
 
     private Channel fallbackLocal() {
+        String format = "&e{prefix} {nick}&f: &e{message}";
+        String spy = "&dSPY &e{prefix} {nick}&f: &e{message}";
         return new Channel("local", ChannelType.LOCAL, "nightchat.channel.local",
                 100.0, 0.0, true, false, false,
                 false, "money", 0.0, 0.0, false,
-                "&e{prefix} {nick}&f: &e{message}", "&dSPY &e{prefix} {nick}&f: &e{message}",
-                List.of("l","local"), Map.of());
+                format, spy, FormatTemplate.compile(format, Map.of()), FormatTemplate.compile(spy, Map.of()),
+                List.of("l","local"), List.of(), Map.of(), List.of(), true, 0);
     }
 
     // Exemplos padrão (ajuste livremente)
@@ -162,6 +224,15 @@ min-balance = 0.0
 message-cost = 0.0
 show-message-cost = false
 
+# Faixas além de 'distance' (opcional): cada uma com o próprio formato
+# [[Bands]]
+# distance = 80.0
+# format = ["&8{nick}&8: &8{message}"]
+#
+# [[Bands]]
+# distance = 120.0
+# format = ["&8&oAlguém está gritando por perto..."]
+
 [[Tags]]
 id = "channel_logo"
 hover = ["&e[L]"]
@@ -211,6 +282,7 @@ permission = "nightchat.tag.prime"
 id = "global"
 type = "GLOBAL"
 commands = ["g","global","!"]
+prefixes = ["!"]
 permission = "nightchat.channel.global"
 
 distance = 0.0
@@ -218,6 +290,9 @@ delay-message = 0.0
 mentionable = true
 highlight = false
 prevent-capslock = true
+bundle-packets = true
+# Tamanho máximo do componente (bytes, 0 = sem limite); acima disso os hovers mais pesados são removidos
+max-bytes = 0
 
 format = ["&b[G] {suffix} {prefix} {nick}&f: &b{message}"]
 spy = ["&dSPY &b{prefix} {nick}&f: &b{message}"]
@@ -233,6 +308,7 @@ show-message-cost = false
 id = "staff"
 type = "STAFF"
 commands = ["s","staff","@"]
+prefixes = []
 permission = "nightchat.channel.staff"
 
 distance = 0.0
@@ -240,6 +316,8 @@ delay-message = 0.0
 mentionable = false
 highlight = false
 prevent-capslock = false
+# Staff sai na hora, sem esperar o bundle do fim do tick
+bundle-packets = false
 
 format = ["&d[@] {suffix} {prefix} {nick}&f: &d{message}"]
 spy = ["&dSPY &d{prefix} {nick}&f: &d{message}"]
@@ -0,0 +1,65 @@
+package org.night.nightchat.chat;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice reverso por canal: quem (online) silenciou e quem espiona cada canal, em bitsets
+ * sobre os slots de {@link PlayerSlots}. Mantido incrementalmente por login/logout e pelos
+ * toggles, para que a entrega filtre com operações de palavra em vez de consultar cada jogador.
+ * Acessado apenas na thread do servidor.
+ */
+public class ChannelSubscriptions {
+    private static final BitSet EMPTY = new BitSet(0);
+
+    // canal -> slots que silenciaram o canal
+    private final Map<String, BitSet> mutedBy = new HashMap<>();
+    // canal -> slots que espionam o canal
+    private final Map<String, BitSet> spiedBy = new HashMap<>();
+
+    public void join(int slot, Collection<String> mutedChannels, Collection<String> spyChannels) {
+        for (String id : mutedChannels) setMuted(slot, id, true);
+        for (String id : spyChannels) setSpy(slot, id, true);
+    }
+
+    public void leave(int slot) {
+        if (slot < 0) return;
+        for (BitSet set : mutedBy.values()) set.clear(slot);
+        for (BitSet set : spiedBy.values()) set.clear(slot);
+    }
+
+    public void setMuted(int slot, String channelId, boolean muted) {
+        update(mutedBy, slot, channelId, muted);
+    }
+
+    public void setSpy(int slot, String channelId, boolean spy) {
+        update(spiedBy, slot, channelId, spy);
+    }
+
+    /** Não modifique o retorno. */
+    public BitSet mutedBy(String channelId) {
+        return mutedBy.getOrDefault(channelId, EMPTY);
+    }
+
+    /** Não modifique o retorno. */
+    public BitSet spiedBy(String channelId) {
+        return spiedBy.getOrDefault(channelId, EMPTY);
+    }
+
+    public void clear() {
+        mutedBy.clear();
+        spiedBy.clear();
+    }
+
+    private static void update(Map<String, BitSet> index, int slot, String channelId, boolean on) {
+        if (slot < 0) return;
+        if (on) {
+            index.computeIfAbsent(channelId, k -> new BitSet()).set(slot);
+        } else {
+            BitSet set = index.get(channelId);
+            if (set != null) set.clear(slot);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.night.nightchat.Nightchat;
+import org.night.nightchat.integration.NightEconomyHook;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Cobrança de canais pagos sem esperar o NightEconomy: o custo é reservado contra um saldo local
+ * (buscado no login e atualizado em segundo plano) e a mensagem sai na hora. As reservas acumulam num
+ * livro por jogador e moeda, que vira um único débito a cada 'flushSeconds', quando o total passa de
+ * 'flushThreshold', no logout e na parada do servidor. Os débitos rodam numa thread própria, em ordem.
+ * Débito recusado vira bloqueio temporário do jogador nos canais pagos e um aviso, entregue pela
+ * thread do servidor via {@link #drainFailures}. Débito de resultado desconhecido (timeout ou erro)
+ * nunca é reenviado: a chamada abandonada ainda pode cair no NightEconomy, então o valor segue
+ * reservado até um saldo relido mostrar o estado real.
+ */
+public class ChargeReservations {
+
+    public enum Outcome { OK, INSUFFICIENT, BLOCKED }
+
+    /** Débito agregado que falhou depois que as mensagens já tinham saído. */
+    public static final class Failure {
+        public final UUID playerId;
+        public final String currencyId;
+        public final double cost;
+        public final int messages;
+
+        Failure(UUID playerId, String currencyId, double cost, int messages) {
+            this.playerId = playerId;
+            this.currencyId = currencyId;
+            this.cost = cost;
+            this.messages = messages;
+        }
+    }
+
+    /** Total ainda não debitado de uma moeda, somado entre os jogadores. */
+    public static final class Pending {
+        public double amount;
+        public int messages;
+        public int players;
+    }
+
+    private static final class Account {
+        final ServerPlayer player;
+        final String currencyId;
+        double balance = Double.NaN; // NaN = ainda não conhecido
+        long fetchedAtNanos;
+        boolean fetching;
+        double pending;              // acumulado no livro, ainda não enviado
+        int pendingMessages;
+        long pendingSinceNanos;
+        double inFlight;             // débito enviado e ainda sem resposta (ou sem resultado conhecido)
+
+        Account(ServerPlayer player, String currencyId) {
+            this.player = player;
+            this.currencyId = currencyId;
+        }
+    }
+
+    private final NightEconomyHook economy;
+    private final Map<UUID, Map<String, Account>> accounts = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> blockedUntilNanos = new ConcurrentHashMap<>();
+    private final Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+    private volatile ThreadPoolExecutor settler;
+    private volatile long refreshNanos = 30_000_000_000L;
+    private volatile long blockNanos = 30_000_000_000L;
+    private volatile long flushNanos = 10_000_000_000L;
+    private volatile double flushThreshold = 100.0;
+
+    private final AtomicLong reservedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong settledCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong unknownCount = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    public ChargeReservations(NightEconomyHook economy) {
+        this.economy = economy;
+    }
+
+    /** Ajusta os tempos; pode ser chamado de novo no reload. */
+    public void configure(int refreshSeconds, int blockSeconds, int flushSeconds, double flushThreshold) {
+        this.refreshNanos = Math.max(1, refreshSeconds) * 1_000_000_000L;
+        this.blockNanos = Math.max(0, blockSeconds) * 1_000_000_000L;
+        this.flushNanos = Math.max(0, flushSeconds) * 1_000_000_000L;
+        this.flushThreshold = flushThreshold;
+    }
+
+    public void start() {
+        if (settler != null) return;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "NightChat-Charges");
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.settler = pool;
+    }
+
+    /** Servidor parando: envia o que está no livro, espera os débitos e descarta o estado. */
+    public void stop() {
+        flushAll();
+        accounts.clear();
+        ThreadPoolExecutor pool = settler;
+        settler = null;
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    Nightchat.LOGGER.warn("Chat charges still settling at shutdown: {}", pool.getQueue().size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        blockedUntilNanos.clear();
+        failures.clear();
+    }
+
+    /** Login: já busca o saldo das moedas dos canais pagos, para a primeira mensagem não esperar. */
+    public void prefetch(ServerPlayer p, Iterable<Channel> channels) {
+        for (Channel c : channels) {
+            if (isPaid(c)) refresh(account(p, c.currencyId));
+        }
+    }
+
+    /** Logout: o livro do jogador é enviado antes de esquecer a conta (o débito segue na fila). */
+    public void forget(UUID id) {
+        Map<String, Account> perCurrency = accounts.remove(id);
+        if (perCurrency != null) {
+            for (Account acc : perCurrency.values()) flush(acc);
+        }
+        blockedUntilNanos.remove(id);
+    }
+
+    public static boolean isPaid(Channel c) {
+        return c.currencyEnabled && (c.messageCost > 0 || c.minBalance > 0);
+    }
+
+    /**
+     * Decide localmente se a mensagem pode sair e lança o custo no livro. O min-balance vale contra o
+     * saldo local menos o que ainda não foi debitado; saldo desconhecido deixa passar (otimista) e a
+     * liquidação corrige depois.
+     */
+    public Outcome reserve(ServerPlayer p, Channel c) {
+        // Job que ficou no pipeline depois do logout: não recria a conta já enviada e esquecida
+        if (p.hasDisconnected()) return Outcome.BLOCKED;
+        UUID id = p.getUUID();
+        Long until = blockedUntilNanos.get(id);
+        if (until != null) {
+            if (System.nanoTime() - until < 0) return Outcome.BLOCKED;
+            blockedUntilNanos.remove(id, until);
+        }
+
+        Account acc = account(p, c.currencyId);
+        double cost = Math.max(0, c.messageCost);
+        boolean stale;
+        boolean full = false;
+        synchronized (acc) {
+            if (!Double.isNaN(acc.balance)) {
+                double available = acc.balance - acc.pending - acc.inFlight;
+                if (available < c.minBalance || available < cost) return Outcome.INSUFFICIENT;
+            }
+            if (cost > 0) {
+                if (acc.pendingMessages == 0) acc.pendingSinceNanos = System.nanoTime();
+                acc.pending += cost;
+                acc.pendingMessages++;
+                full = flushThreshold > 0 && acc.pending >= flushThreshold;
+            }
+            stale = Double.isNaN(acc.balance) || System.nanoTime() - acc.fetchedAtNanos >= refreshNanos;
+        }
+        if (cost > 0) reservedCount.incrementAndGet();
+        if (full) flush(acc);
+        if (stale) refresh(acc);
+        return Outcome.OK;
+    }
+
+    /** Thread do servidor, a cada tick: envia os livros com lançamento mais antigo que 'flushSeconds'. */
+    public void flushDue() {
+        long now = System.nanoTime();
+        long due = flushNanos;
+        for (Map<String, Account> perCurrency : accounts.values()) {
+            for (Account acc : perCurrency.values()) {
+                boolean ready;
+                synchronized (acc) {
+                    ready = acc.pendingMessages > 0 && now - acc.pendingSinceNanos >= due;
+                }
+                if (ready) flush(acc);
+            }
+        }
+    }
+
+    public void flushAll() {
+        for (Map<String, Account> perCurrency : accounts.values()) {
+            for (Account acc : perCurrency.values()) flush(acc);
+        }
+    }
+
+    /** Saldo local menos o que ainda não foi debitado (NaN se desconhecido): o que o render mostra em {money}. */
+    public double available(UUID id, String currencyId) {
+        Map<String, Account> perCurrency = accounts.get(id);
+        Account acc = perCurrency == null ? null : perCurrency.get(currencyId);
+        if (acc == null) return Double.NaN;
+        synchronized (acc) {
+            return acc.balance - acc.pending - acc.inFlight;
+        }
+    }
+
+    /** Thread do servidor: entrega os avisos de débitos recusados. */
+    public void drainFailures(Consumer<Failure> notice) {
+        Failure f;
+        while ((f = failures.poll()) != null) notice.accept(f);
+    }
+
+    /** Totais no livro e em voo, por moeda. */
+    public Map<String, Pending> pending() {
+        Map<String, Pending> out = new TreeMap<>();
+        for (Map<String, Account> perCurrency : accounts.values()) {
+            for (Account acc : perCurrency.values()) {
+                synchronized (acc) {
+                    if (acc.pendingMessages == 0 && acc.inFlight <= 0) continue;
+                    Pending t = out.computeIfAbsent(acc.currencyId, k -> new Pending());
+                    t.amount += acc.pending + acc.inFlight;
+                    t.messages += acc.pendingMessages;
+                    t.players++;
+                }
+            }
+        }
+        return out;
+    }
+
+    public int blockSeconds() {
+        return (int) (blockNanos / 1_000_000_000L);
+    }
+
+    public int flushSeconds() {
+        return (int) (flushNanos / 1_000_000_000L);
+    }
+
+    public double flushThreshold() {
+        return flushThreshold;
+    }
+
+    /** Segundos desde o último débito agregado enviado; -1 se nenhum ainda. */
+    public long secondsSinceLastFlush() {
+        long last = lastFlushNanos;
+        return last == 0 ? -1 : (System.nanoTime() - last) / 1_000_000_000L;
+    }
+
+    public long reserved() { return reservedCount.get(); }
+    public long flushes() { return flushCount.get(); }
+    public long settled() { return settledCount.get(); }
+    public long failed() { return failedCount.get(); }
+    public long skipped() { return skippedCount.get(); }
+    public long unknown() { return unknownCount.get(); }
+
+    public int pendingSettlements() {
+        ThreadPoolExecutor pool = settler;
+        return pool == null ? 0 : pool.getQueue().size() + pool.getActiveCount();
+    }
+
+    private Account account(ServerPlayer p, String currencyId) {
+        return accounts.computeIfAbsent(p.getUUID(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(currencyId, k -> new Account(p, k));
+    }
+
+    // Tira o acumulado do livro e põe um único débito na fila de liquidação
+    private void flush(Account acc) {
+        double amount;
+        int count;
+        synchronized (acc) {
+            if (acc.pendingMessages == 0) return;
+            amount = acc.pending;
+            count = acc.pendingMessages;
+            acc.pending = 0;
+            acc.pendingMessages = 0;
+            acc.inFlight += amount;
+        }
+        flushCount.incrementAndGet();
+        lastFlushNanos = System.nanoTime();
+        submit(acc, amount, count);
+    }
+
+    private void submit(Account acc, double amount, int count) {
+        UUID id = acc.player.getUUID();
+        settle(() -> {
+            NightEconomyHook.Debit d = economy.debit(acc.player, acc.currencyId, amount, "nightchat: " + count + " chat message(s)");
+            if (d == NightEconomyHook.Debit.UNKNOWN) {
+                unknownCount.addAndGet(count);
+                Nightchat.LOGGER.warn("Chat charge of {} {} for {} ({} messages) has an unknown outcome; not resending, reconciling with the balance",
+                        amount, acc.currencyId, id, count);
+                reconcile(acc, amount);
+                return;
+            }
+            synchronized (acc) {
+                acc.inFlight -= amount;
+                if (d == NightEconomyHook.Debit.OK && !Double.isNaN(acc.balance)) acc.balance -= amount;
+            }
+            if (d == NightEconomyHook.Debit.OK) {
+                settledCount.addAndGet(count);
+                return;
+            }
+            if (d == NightEconomyHook.Debit.SKIPPED) {
+                skippedCount.addAndGet(count);
+                return;
+            }
+            failedCount.addAndGet(count);
+            if (blockNanos > 0) blockedUntilNanos.put(id, System.nanoTime() + blockNanos);
+            failures.add(new Failure(id, acc.currencyId, amount, count));
+            fetch(acc);
+        }, () -> {
+            synchronized (acc) { acc.inFlight -= amount; }
+            Nightchat.LOGGER.warn("Dropped chat charge of {} {} for {} ({} messages): settler not running",
+                    amount, acc.currencyId, id, count);
+        });
+    }
+
+    /**
+     * Débito de resultado desconhecido: o valor fica em inFlight (fora do disponível) e o saldo é relido
+     * numa tarefa própria, atrás do que já está na fila, para dar tempo à chamada abandonada. O saldo
+     * relido passa a valer e a reserva sai; se o débito ainda cair depois, o próximo refresh corrige.
+     */
+    private void reconcile(Account acc, double amount) {
+        settle(() -> {
+            double bal = economy.getBalance(acc.player, acc.currencyId);
+            synchronized (acc) {
+                acc.inFlight -= amount;
+                if (Double.isNaN(bal)) return; // sem saldo: a próxima leitura ajusta
+                acc.balance = bal;
+                acc.fetchedAtNanos = System.nanoTime();
+            }
+        }, () -> {
+            synchronized (acc) { acc.inFlight -= amount; }
+        });
+    }
+
+    private void refresh(Account acc) {
+        synchronized (acc) {
+            if (acc.fetching) return;
+            acc.fetching = true;
+        }
+        settle(() -> fetch(acc), () -> {
+            synchronized (acc) { acc.fetching = false; }
+        });
+    }
+
+    // Na thread de liquidação, depois dos débitos já enfileirados: o saldo lido já os inclui
+    private void fetch(Account acc) {
+        double bal = economy.getBalance(acc.player, acc.currencyId);
+        synchronized (acc) {
+            acc.fetching = false;
+            if (Double.isNaN(bal)) return;
+            acc.balance = bal;
+            acc.fetchedAtNanos = System.nanoTime();
+        }
+    }
+
+    private void settle(Runnable task, Runnable onRejected) {
+        ThreadPoolExecutor pool = settler;
+        if (pool == null || pool.isShutdown()) {
+            onRejected.run();
+            return;
+        }
+        try {
+            pool.execute(task);
+        } catch (Exception e) {
+            onRejected.run();
+        }
+    }
+}
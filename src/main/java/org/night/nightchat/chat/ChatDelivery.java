@@ -0,0 +1,123 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.ChatVisiblity;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envio de mensagens de chat já renderizadas. Um broadcast monta um único
+ * ClientboundSystemChatPacket e o mesmo objeto é escrito na conexão de cada destinatário,
+ * em vez de passar pelo caminho por jogador de sendSystemMessage.
+ * <p>
+ * Com bundle ligado, os pacotes do tick ficam numa fila por destinatário e {@link #flush()}
+ * (fim do tick) manda tudo num único ClientboundBundlePacket, na ordem em que foram enfileirados.
+ * Um envio imediato para quem já tem fila esvazia a fila antes, então a ordem é sempre mantida.
+ * Mensagens de canal passam antes por {@link RecipientBacklog}: conexão atrasada não recebe
+ * GLOBAL/LOCAL, só o resumo do que foi pulado. Avisos e privadas ({@link #send}) nunca são pulados.
+ * Acessado apenas na thread do servidor.
+ */
+public class ChatDelivery {
+
+    // Limite do cliente para pacotes dentro de um bundle (BundlerInfo.BUNDLE_SIZE_LIMIT)
+    private static final int MAX_BUNDLE = 4096;
+
+    private final Map<ServerPlayer, List<Packet<? super ClientGamePacketListener>>> pending = new IdentityHashMap<>();
+    private final RecipientBacklog backlog = new RecipientBacklog();
+    private boolean enabled = true;
+
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong packets = new AtomicLong();
+    private final AtomicLong bundles = new AtomicLong();
+
+    public void setEnabled(boolean enabled) {
+        if (!enabled) flush();
+        this.enabled = enabled;
+    }
+
+    /**
+     * Mensagem de canal: respeita o bundle do canal e pula destinatários com a conexão atrasada.
+     * Retorna quantos jogadores receberam.
+     */
+    public int broadcast(Iterable<ServerPlayer> recipients, Component message, Channel channel) {
+        ClientboundSystemChatPacket packet = new ClientboundSystemChatPacket(message, false);
+        int sent = 0;
+        for (ServerPlayer p : recipients) {
+            if (backlog.skip(p, channel)) continue;
+            if (deliver(p, packet, channel.bundle)) sent++;
+        }
+        return sent;
+    }
+
+    public int send(ServerPlayer player, Component message, Channel channel) {
+        if (backlog.skip(player, channel)) return 0;
+        return deliver(player, new ClientboundSystemChatPacket(message, false), channel.bundle) ? 1 : 0;
+    }
+
+    /** Aviso de sistema ou mensagem privada: nunca é pulado. */
+    public void send(ServerPlayer player, Component message, boolean bundle) {
+        deliver(player, new ClientboundSystemChatPacket(message, false), bundle);
+    }
+
+    public RecipientBacklog backlog() {
+        return backlog;
+    }
+
+    /** Pacotes na fila do tick para o jogador. */
+    public int queued(ServerPlayer p) {
+        List<Packet<? super ClientGamePacketListener>> q = pending.get(p);
+        return q == null ? 0 : q.size();
+    }
+
+    /** Fim do tick: um pacote (ou bundle) por destinatário com fila. */
+    public void flush() {
+        if (pending.isEmpty()) return;
+        for (Map.Entry<ServerPlayer, List<Packet<? super ClientGamePacketListener>>> e : pending.entrySet()) {
+            write(e.getKey(), e.getValue());
+        }
+        pending.clear();
+    }
+
+    public long messages() { return messages.get(); }
+    public long packets() { return packets.get(); }
+    public long bundles() { return bundles.get(); }
+
+    private boolean deliver(ServerPlayer p, ClientboundSystemChatPacket packet, boolean bundle) {
+        // Mesmo critério de sendSystemMessage: chat oculto não recebe mensagens de sistema
+        if (p.connection == null || p.getChatVisibility() == ChatVisiblity.HIDDEN) return false;
+        messages.incrementAndGet();
+        if (bundle && enabled) {
+            pending.computeIfAbsent(p, k -> new ArrayList<>(4)).add(packet);
+            return true;
+        }
+        List<Packet<? super ClientGamePacketListener>> queued = pending.remove(p);
+        if (queued != null) write(p, queued);
+        p.connection.send(packet);
+        packets.incrementAndGet();
+        return true;
+    }
+
+    private void write(ServerPlayer p, List<Packet<? super ClientGamePacketListener>> queued) {
+        if (p.connection == null) return; // saiu durante o tick
+        if (queued.size() == 1) {
+            p.connection.send(queued.get(0));
+            packets.incrementAndGet();
+            return;
+        }
+        for (int from = 0; from < queued.size(); from += MAX_BUNDLE) {
+            List<Packet<? super ClientGamePacketListener>> part = queued.subList(from, Math.min(queued.size(), from + MAX_BUNDLE));
+            p.connection.send(new ClientboundBundlePacket(new ArrayList<>(part)));
+            packets.incrementAndGet();
+            bundles.incrementAndGet();
+        }
+    }
+}
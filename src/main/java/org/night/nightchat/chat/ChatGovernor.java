@@ -0,0 +1,166 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Orçamento por tick para a entrada do chat (estágio de snapshot na thread do servidor).
+ * Dentro do orçamento a mensagem segue na hora; fora dele fica numa fila por prioridade
+ * (STAFF > GLOBAL > LOCAL) para os próximos ticks. Mensagens de GLOBAL/LOCAL que esperam demais
+ * são descartadas com aviso ao remetente; STAFF não expira. Fila cheia descarta em qualquer
+ * prioridade. Acessado apenas na thread do servidor.
+ */
+public class ChatGovernor {
+
+    private static final class Pending {
+        final ServerPlayer sender;
+        final Channel channel;
+        final BooleanSupplier work;
+        final int tick;
+
+        Pending(ServerPlayer sender, Channel channel, BooleanSupplier work, int tick) {
+            this.sender = sender;
+            this.channel = channel;
+            this.work = work;
+            this.tick = tick;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Pending>[] queues = new ArrayDeque[] { new ArrayDeque<>(), new ArrayDeque<>(), new ArrayDeque<>() };
+    private final BiConsumer<ServerPlayer, Channel> onShed;
+    private final Set<UUID> notifiedThisTick = new HashSet<>();
+
+    private boolean enabled = true;
+    private long budgetNanos = 5_000_000L;
+    private int maxPerTick = 50;
+    private int maxDeferTicks = 40;
+    private int queueCapacity = 500;
+
+    private int tick;
+    private long spentNanos;
+    private int handled;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+
+    public ChatGovernor(BiConsumer<ServerPlayer, Channel> onShed) {
+        this.onShed = onShed;
+    }
+
+    public void configure(boolean enabled, double budgetMillis, int maxPerTick, int maxDeferTicks, int queueCapacity) {
+        this.enabled = enabled;
+        this.budgetNanos = (long) (Math.max(0.1, budgetMillis) * 1_000_000L);
+        this.maxPerTick = Math.max(1, maxPerTick);
+        this.maxDeferTicks = Math.max(1, maxDeferTicks);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public static int priority(ChannelType type) {
+        return switch (type) {
+            case STAFF -> 0;
+            case GLOBAL -> 1;
+            case LOCAL -> 2;
+        };
+    }
+
+    /**
+     * Roda 'work' agora se houver orçamento e nada mais prioritário esperando; senão adia.
+     * Retorna o resultado de 'work', true se adiado, ou false se descartado.
+     */
+    public boolean offer(ServerPlayer sender, Channel channel, BooleanSupplier work) {
+        if (!enabled) return work.getAsBoolean();
+        int prio = priority(channel.type);
+        if (nothingWaitingUpTo(prio) && hasBudget()) return run(work);
+
+        if (queues[prio].size() >= queueCapacity) {
+            shed(sender, channel);
+            return false;
+        }
+        queues[prio].add(new Pending(sender, channel, work, tick));
+        deferred.incrementAndGet();
+        return true;
+    }
+
+    /** Início de cada tick: zera o orçamento e atende a fila por prioridade. */
+    public void onTick(int serverTick) {
+        tick = serverTick;
+        spentNanos = 0L;
+        handled = 0;
+        notifiedThisTick.clear();
+
+        for (int prio = 0; prio < queues.length; prio++) {
+            ArrayDeque<Pending> q = queues[prio];
+            while (!q.isEmpty() && hasBudget()) {
+                Pending p = q.poll();
+                if (expired(prio, p)) { shed(p.sender, p.channel); continue; }
+                run(p.work);
+            }
+        }
+        // Sem orçamento para todos: o que já esperou demais nas filas descartáveis sai agora (FIFO: mais velhos na frente)
+        for (int prio = 1; prio < queues.length; prio++) {
+            ArrayDeque<Pending> q = queues[prio];
+            while (!q.isEmpty() && expired(prio, q.peek())) {
+                Pending p = q.poll();
+                shed(p.sender, p.channel);
+            }
+        }
+    }
+
+    public long admitted() { return admitted.get(); }
+    public long deferred() { return deferred.get(); }
+    public long shed() { return shed.get(); }
+
+    public int waiting() {
+        int n = 0;
+        for (ArrayDeque<Pending> q : queues) n += q.size();
+        return n;
+    }
+
+    /** Logout: o que o jogador deixou na fila não roda mais (sem slot, o público ignoraria bloqueios). */
+    public void forget(UUID senderId) {
+        for (ArrayDeque<Pending> q : queues) q.removeIf(p -> p.sender.getUUID().equals(senderId));
+    }
+
+    public void clear() {
+        for (ArrayDeque<Pending> q : queues) q.clear();
+    }
+
+    private boolean run(BooleanSupplier work) {
+        long start = System.nanoTime();
+        try {
+            return work.getAsBoolean();
+        } finally {
+            spentNanos += System.nanoTime() - start;
+            handled++;
+            admitted.incrementAndGet();
+        }
+    }
+
+    private boolean hasBudget() {
+        return handled < maxPerTick && spentNanos < budgetNanos;
+    }
+
+    private boolean nothingWaitingUpTo(int prio) {
+        for (int i = 0; i <= prio; i++) if (!queues[i].isEmpty()) return false;
+        return true;
+    }
+
+    private boolean expired(int prio, Pending p) {
+        return prio > 0 && tick - p.tick > maxDeferTicks;
+    }
+
+    // Vários descartes do mesmo remetente no mesmo tick viram um único aviso
+    private void shed(ServerPlayer sender, Channel channel) {
+        shed.incrementAndGet();
+        if (notifiedThisTick.add(sender.getUUID())) onShed.accept(sender, channel);
+    }
+}
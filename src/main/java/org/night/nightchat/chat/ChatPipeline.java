@@ -0,0 +1,272 @@
+package org.night.nightchat.chat;
+
+import org.night.nightchat.Nightchat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Pipeline do chat em estágios:
+ * 1) snapshot na thread do servidor (quem chamou {@link #submit});
+ * 2) filtro + economia + render num pool limitado de workers, em série por remetente;
+ * 3) os envios voltam para a thread do servidor e são drenados a cada tick ({@link #drain}).
+ * A drenagem libera os resultados na ordem de chegada dentro de cada canal (e, por consequência, de
+ * cada remetente): um job lento (ex.: economia no timeout) segura as respostas seguintes do mesmo
+ * canal, mas não as de outros canais.
+ */
+public class ChatPipeline {
+
+    /** Ações de saída montadas pelo worker e executadas na thread do servidor. */
+    public static final class Outbound {
+        private final List<Runnable> actions = new ArrayList<>(4);
+        final int generation;
+        final String channelId;
+        final long seq; // posição na ordem do canal
+        final long submittedAt;
+        long processedAt;
+
+        Outbound(int generation, String channelId, long seq, long submittedAt) {
+            this.generation = generation;
+            this.channelId = channelId;
+            this.seq = seq;
+            this.submittedAt = submittedAt;
+        }
+
+        public void add(Runnable action) {
+            actions.add(action);
+        }
+
+        void run() {
+            for (Runnable r : actions) {
+                try {
+                    r.run();
+                } catch (Throwable t) {
+                    Nightchat.LOGGER.warn("Chat delivery action failed: {}", t.toString());
+                }
+            }
+        }
+    }
+
+    /** Contagem e latência (ns) de um estágio. */
+    public static final class StageStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long count() { return count.get(); }
+        public double avgMillis() { long c = count.get(); return c == 0 ? 0 : totalNanos.get() / (double) c / 1_000_000.0; }
+        public double maxMillis() { return maxNanos.get() / 1_000_000.0; }
+    }
+
+    // Fila serial por remetente: economia e cooldown do mesmo jogador nunca rodam em paralelo
+    private final class Lane {
+        final UUID key;
+        final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        boolean running;
+
+        Lane(UUID key) { this.key = key; }
+    }
+
+    // Ordem de liberação de um canal: resultados prontos esperam os anteriores do mesmo canal
+    private static final class ChannelOrder {
+        long next;    // próximo seq a distribuir
+        long release; // próximo seq a liberar
+        final Map<Long, Outbound> ready = new HashMap<>();
+    }
+
+    public final StageStats snapshotStage = new StageStats();
+    public final StageStats processStage = new StageStats();
+    public final StageStats handoffStage = new StageStats();
+    public final StageStats totalStage = new StageStats();
+
+    private final Map<UUID, Lane> lanes = new HashMap<>();
+    private final Queue<Outbound> completed = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Lane> stalled = new ArrayDeque<>(); // só a thread do servidor mexe
+    private final Map<String, ChannelOrder> orders = new HashMap<>(); // só a thread do servidor mexe
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int generation; // muda a cada reset: resultado de um pool antigo é descartado
+
+    private volatile ThreadPoolExecutor workers;
+    private volatile boolean async = true;
+
+    public void start(int threads, int queueCapacity, boolean async) {
+        this.async = async;
+        if (workers != null) return; // tamanho do pool só muda com reinício
+        reset();
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                Math.max(1, threads), Math.max(1, threads), 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(16, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "NightChat-Worker-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        // Fila cheia: a execução rejeitada lança e a fila do remetente espera o próximo tick (ver execute)
+        pool.allowCoreThreadTimeOut(true);
+        this.workers = pool;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Chamado na thread do servidor com o snapshot já feito (no tempo snapshotNanos).
+     * O job roda fora da thread do servidor e só deve registrar envios em Outbound; os envios saem na
+     * ordem de submissão dentro de 'channelId'.
+     */
+    public void submit(UUID sender, String channelId, long snapshotNanos, Consumer<Outbound> job) {
+        snapshotStage.record(snapshotNanos);
+        ChannelOrder order = orders.computeIfAbsent(channelId, k -> new ChannelOrder());
+        Outbound out = new Outbound(generation, channelId, order.next++, System.nanoTime());
+        inFlight.incrementAndGet();
+        Runnable task = () -> {
+            long start = System.nanoTime();
+            try {
+                job.accept(out);
+            } catch (Throwable t) {
+                Nightchat.LOGGER.error("Chat pipeline job failed", t);
+            } finally {
+                out.processedAt = System.nanoTime();
+                processStage.record(out.processedAt - start);
+                completed.add(out);
+            }
+        };
+        ThreadPoolExecutor pool = workers;
+        if (!async || pool == null || pool.isShutdown()) {
+            task.run();
+            drain();
+            return;
+        }
+        enqueue(sender, task);
+    }
+
+    private void enqueue(UUID sender, Runnable task) {
+        Lane lane;
+        synchronized (lanes) {
+            lane = lanes.computeIfAbsent(sender, Lane::new);
+            lane.queue.add(task);
+            if (lane.running) return;
+            lane.running = true;
+        }
+        execute(lane);
+    }
+
+    // Pool cheio: a fila do remetente fica marcada como em execução (novas mensagens só se juntam a ela)
+    // e é reenviada no próximo drain, sem rodar render e economia na thread do servidor
+    private void execute(Lane lane) {
+        Runnable loop = () -> {
+            while (true) {
+                Runnable next;
+                synchronized (lanes) {
+                    next = lane.queue.poll();
+                    if (next == null) {
+                        lane.running = false;
+                        lanes.remove(lane.key, lane);
+                        return;
+                    }
+                }
+                next.run();
+            }
+        };
+        ThreadPoolExecutor pool = workers;
+        if (pool == null) {
+            loop.run();
+            return;
+        }
+        try {
+            pool.execute(loop);
+        } catch (RejectedExecutionException full) {
+            stalled.add(lane);
+        }
+    }
+
+    /** Executa os resultados prontos, em ordem por canal, e reenvia as filas adiadas. Chamado a cada tick do servidor. */
+    public void drain() {
+        for (int n = stalled.size(); n > 0; n--) {
+            execute(stalled.poll());
+        }
+        Outbound out;
+        while ((out = completed.poll()) != null) {
+            if (out.generation != generation) continue;
+            ChannelOrder order = orders.get(out.channelId);
+            if (order == null) continue;
+            order.ready.put(out.seq, out);
+            Outbound next;
+            while ((next = order.ready.remove(order.release)) != null) {
+                order.release++;
+                release(next);
+            }
+            if (order.release == order.next) orders.remove(out.channelId, order);
+        }
+    }
+
+    private void release(Outbound out) {
+        inFlight.decrementAndGet();
+        long now = System.nanoTime();
+        handoffStage.record(now - out.processedAt);
+        totalStage.record(now - out.submittedAt);
+        out.run();
+    }
+
+    /** Mensagens aceitas e ainda não entregues. */
+    public int queueDepth() {
+        return inFlight.get();
+    }
+
+    /** Tarefas aguardando um worker livre (inclui remetentes adiados por pool cheio). */
+    public int workerBacklog() {
+        ThreadPoolExecutor pool = workers;
+        return (pool == null ? 0 : pool.getQueue().size()) + stalled.size();
+    }
+
+    public void shutdown() {
+        ThreadPoolExecutor pool = workers;
+        workers = null;
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        stalled.clear(); // sem pool, execute rodaria as filas adiadas aqui mesmo
+        drain();
+        int lost = inFlight.get();
+        if (lost > 0) Nightchat.LOGGER.warn("Chat pipeline stopped with {} message(s) not delivered", lost);
+        reset();
+    }
+
+    // Um job que não terminou no shutdown não pode deixar contagem ou fila para o próximo start
+    private void reset() {
+        synchronized (lanes) {
+            lanes.clear();
+        }
+        completed.clear();
+        stalled.clear();
+        orders.clear();
+        inFlight.set(0);
+        generation++;
+    }
+}
@@ -1,29 +1,35 @@
 package org.night.nightchat.chat;
 
+import net.minecraft.core.HolderLookup;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.HoverEvent;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
-import net.minecraft.world.phys.AABB;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.ServerChatEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.tick.PlayerTickEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import org.night.nightchat.config.GlobalConfig;
 import org.night.nightchat.integration.LuckPermsHook;
 import org.night.nightchat.integration.NightEconomyHook;
+import org.night.nightchat.lang.MessageCatalog;
+import org.night.nightchat.lang.Messages;
 import org.night.nightchat.persist.PlayerState;
 import org.night.nightchat.persist.PlayerStateStore;
-import org.night.nightchat.util.NumberUtil;
+import org.night.nightchat.placeholder.PlaceholderContext;
+import org.night.nightchat.placeholder.PlaceholderRegistry;
+import org.night.nightchat.placeholder.PlaceholderText;
 import org.night.nightchat.util.TextUtil;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class ChatService {
     private final ChannelManager channels;
@@ -32,35 +38,76 @@ public class ChatService {
     private final GlobalConfig config;
     private final MessageFilterService filters;
     private final PlayerStateStore stateStore;
+    private final PlaceholderRegistry placeholders;
+    private final MessageCatalog messages;
 
     private final Map<UUID, Set<String>> mutedChannels = new ConcurrentHashMap<>();
     private final Map<UUID, Set<UUID>> mutedPlayers = new ConcurrentHashMap<>();
     private final Map<UUID, Set<String>> spyChannels = new ConcurrentHashMap<>();
     private final Map<UUID, Set<UUID>> ignoredPlayers = new ConcurrentHashMap<>();
     private final Map<UUID, Map<String, Long>> nextSpeakAtNanos = new ConcurrentHashMap<>();
+    private final TagRenderCache tagCache = new TagRenderCache();
+    private final PlayerSlots slots = new PlayerSlots();
+    private final ChannelSubscriptions subscriptions = new ChannelSubscriptions();
+    private final PlayerGrid grid = new PlayerGrid();
+    private final ChatDelivery delivery = new ChatDelivery();
+    private final ComponentBudget budget = new ComponentBudget();
+    private final ChatPipeline pipeline = new ChatPipeline();
+    private final ChatGovernor governor = new ChatGovernor(this::notifyShed);
+    private final PermissionBits permissions;
+    private final ChargeReservations charges;
 
-    private static final Pattern MENTION_PATTERN = Pattern.compile("(?<!\\w)@([A-Za-z0-9_]{3,16})");
-    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\{([a-z0-9_]+)}", Pattern.CASE_INSENSITIVE);
-    private static final Pattern PERCENT_TOKEN = Pattern.compile("%([a-z0-9_]+)(?:_([a-z0-9_]+))?(?:_([a-z0-9_]+))?%", Pattern.CASE_INSENSITIVE);
-    private static final Pattern FIRST_TOKEN = Pattern.compile("^([!@]|\\S+)\\s+(.*)$");
 
     public ChatService(ChannelManager channels, LuckPermsHook lp, NightEconomyHook economy,
-                       GlobalConfig config, MessageFilterService filters, PlayerStateStore store) {
+                       GlobalConfig config, MessageFilterService filters, PlayerStateStore store,
+                       PlaceholderRegistry placeholders, MessageCatalog messages) {
         this.channels = channels;
         this.luckPerms = lp;
         this.economy = economy;
         this.config = config;
         this.filters = filters;
         this.stateStore = store;
+        this.placeholders = placeholders;
+        this.messages = messages;
+        this.permissions = new PermissionBits(lp);
+        this.charges = new ChargeReservations(economy);
+
+        // Tags renderizados dependem de prefixo/sufixo/permissões e saldo do remetente
+        lp.onUserDataRecalculate(tagCache::invalidate);
+        lp.onUserDataRecalculate(permissions::invalidate);
+        economy.onBalanceChanged(tagCache::invalidate);
     }
 
     public void register() {
+        tagCache.setEconomyTtlSeconds(config.tagEconomyTtlSeconds);
+        TextUtil.setCacheCapacity(config.legacyCacheSize);
+        pipeline.start(config.pipelineWorkers, config.pipelineQueue, config.pipelineAsync);
+        permissions.index(channels.all());
+        configureCharges();
+        charges.start();
+        configureGovernor();
+        delivery.setEnabled(config.deliveryBundle);
+        economy.setBlockWhenUnavailable(config.economyBlockWhenUnavailable);
+        delivery.backlog().configure(config.backlogEnabled, config.backlogMaxPendingKb, config.backlogSummaryTicks);
+        NeoForge.EVENT_BUS.addListener(this::onServerTickStart);
         NeoForge.EVENT_BUS.addListener(this::onServerChat);
+        NeoForge.EVENT_BUS.addListener(this::onServerTick);
         NeoForge.EVENT_BUS.addListener(this::onPlayerLogin);
         NeoForge.EVENT_BUS.addListener(this::onPlayerLogout);
+        NeoForge.EVENT_BUS.addListener(this::onPlayerTick);
     }
 
-    public void unregister() {}
+    public void unregister() {
+        governor.clear();
+        pipeline.shutdown();
+        charges.stop();
+        delivery.flush();
+        delivery.backlog().clear();
+        permissions.clear();
+        grid.clear();
+        subscriptions.clear();
+        slots.clear();
+    }
 
     private void applyState(UUID uuid, PlayerState s) {
         mutedChannels.put(uuid, ConcurrentHashMap.newKeySet());
@@ -93,12 +140,60 @@ public class ChatService {
         if (!(event.getEntity() instanceof ServerPlayer p)) return;
         PlayerState loaded = stateStore.load(p);
         applyState(p.getUUID(), loaded);
+        int slot = slots.join(p);
+        luckPerms.loadMeta(p);
+        permissions.refresh(p);
+        if (config.chargeAsync && economy.isReady()) charges.prefetch(p, channels.all());
+        subscriptions.join(slot, mutedChannels.get(p.getUUID()), spyChannels.get(p.getUUID()));
+        // Relações de bloqueio com quem já está online, nos dois sentidos
+        BitSet online = slots.online();
+        for (int i = online.nextSetBit(0); i >= 0; i = online.nextSetBit(i + 1)) {
+            if (i == slot) continue;
+            UUID other = slots.player(i).getUUID();
+            slots.setBlocked(slot, i, blocks(p.getUUID(), other));
+            slots.setBlocked(i, slot, blocks(other, p.getUUID()));
+        }
+        grid.update(p);
     }
 
     public void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
         if (!(event.getEntity() instanceof ServerPlayer p)) return;
         PlayerState snap = snapshotState(p.getUUID());
         stateStore.save(p, snap);
+        governor.forget(p.getUUID());
+        subscriptions.leave(slots.leave(p.getUUID()));
+        grid.remove(p.getUUID());
+        delivery.backlog().forget(p.getUUID());
+        permissions.forget(p.getUUID());
+        luckPerms.forgetMeta(p.getUUID());
+        economy.forget(p.getUUID());
+        charges.forget(p.getUUID());
+        tagCache.invalidate(p.getUUID());
+    }
+
+    // Mantém a grade de posições para o canal LOCAL (só mexe nela quando o jogador troca de chunk)
+    public void onPlayerTick(PlayerTickEvent.Post event) {
+        if (event.getEntity() instanceof ServerPlayer p) {
+            grid.update(p);
+            slots.refresh(p);
+        }
+    }
+
+    // Orçamento do governador zera no início do tick e a fila adiada é atendida por prioridade
+    public void onServerTickStart(ServerTickEvent.Pre event) {
+        governor.onTick(event.getServer().getTickCount());
+    }
+
+    // Estágio 3: envios prontos voltam para a thread do servidor, em ordem de chegada;
+    // o que ficou em fila por destinatário sai num bundle por jogador
+    public void onServerTick(ServerTickEvent.Post event) {
+        permissions.refreshDirty(this::onlinePlayer);
+        charges.flushDue();
+        charges.drainFailures(this::notifyChargeFailure);
+        pipeline.drain();
+        delivery.flush();
+        delivery.backlog().onTick(event.getServer().getTickCount(), (p, channelId, n) ->
+                delivery.send(p, messages.get(p, Messages.CHAT_SKIPPED, n, channelId), false));
     }
 
     public void flushAll(MinecraftServer server) {
@@ -114,6 +209,7 @@ public class ChatService {
         Set<String> set = mutedChannels.get(player.getUUID());
         boolean nowMuted;
         if (set.contains(id)) { set.remove(id); nowMuted = false; } else { set.add(id); nowMuted = true; }
+        subscriptions.setMuted(slots.slotOf(player.getUUID()), id, nowMuted);
         stateStore.save(player, snapshotState(player.getUUID()));
         return nowMuted;
     }
@@ -124,6 +220,7 @@ public class ChatService {
         Set<String> set = spyChannels.get(player.getUUID());
         boolean nowOn;
         if (set.contains(id)) { set.remove(id); nowOn = false; } else { set.add(id); nowOn = true; }
+        subscriptions.setSpy(slots.slotOf(player.getUUID()), id, nowOn);
         stateStore.save(player, snapshotState(player.getUUID()));
         return nowOn;
     }
@@ -133,6 +230,7 @@ public class ChatService {
         Set<UUID> set = ignoredPlayers.get(player.getUUID());
         boolean nowIgnored;
         if (set.contains(target.getUUID())) { set.remove(target.getUUID()); nowIgnored = false; } else { set.add(target.getUUID()); nowIgnored = true; }
+        slots.setBlocked(slots.slotOf(player.getUUID()), slots.slotOf(target.getUUID()), blocks(player.getUUID(), target.getUUID()));
         stateStore.save(player, snapshotState(player.getUUID()));
         return nowIgnored;
     }
@@ -142,6 +240,7 @@ public class ChatService {
         Set<UUID> set = mutedPlayers.get(player.getUUID());
         boolean nowMuted;
         if (set.contains(target.getUUID())) { set.remove(target.getUUID()); nowMuted = false; } else { set.add(target.getUUID()); nowMuted = true; }
+        slots.setBlocked(slots.slotOf(player.getUUID()), slots.slotOf(target.getUUID()), blocks(player.getUUID(), target.getUUID()));
         stateStore.save(player, snapshotState(player.getUUID()));
         return nowMuted;
     }
@@ -150,33 +249,30 @@ public class ChatService {
         return ignoredPlayers.getOrDefault(who, Set.of()).contains(target);
     }
 
-    private boolean hasMutedChannel(UUID who, String channelId) {
-        return mutedChannels.getOrDefault(who, Set.of()).contains(channelId.toLowerCase(Locale.ROOT));
-    }
-
     private boolean hasMutedPlayer(UUID who, UUID target) {
         return mutedPlayers.getOrDefault(who, Set.of()).contains(target);
     }
 
-    private boolean hasSpy(UUID who, String channelId) {
-        return spyChannels.getOrDefault(who, Set.of()).contains(channelId.toLowerCase(Locale.ROOT));
+    // Permissões do caminho quente: um bit do PermissionBits do jogador
+    public boolean canUseChannel(ServerPlayer p, Channel c) {
+        return permissions.has(p, c.permissionBit, c.permission) || (c.type != ChannelType.STAFF && p.hasPermissions(0));
     }
 
-    private boolean canUseChannel(ServerPlayer p, Channel c) {
-        return luckPerms.hasPermission(p, c.permission) || (c.type != ChannelType.STAFF && p.hasPermissions(0));
+    private boolean canSeeStaff(ServerPlayer p) {
+        return permissions.has(p, permissions.seeStaffBit) || p.hasPermissions(2);
     }
 
-    private boolean canSeeStaff(ServerPlayer p) {
-        return luckPerms.hasPermission(p, "nightchat.channel.staff") || p.hasPermissions(2);
+    private boolean hasBypassDelay(ServerPlayer p, Channel c) {
+        return permissions.has(p, permissions.bypassDelayBit) || permissions.has(p, c.bypassDelayBit, PermissionBits.BYPASS_DELAY + "." + c.id);
     }
 
-    private boolean hasBypassDelay(ServerPlayer p, String channelId) {
-        return luckPerms.hasPermission(p, "nightchat.bypass.delay")
-                || luckPerms.hasPermission(p, "nightchat.bypass.delay." + channelId.toLowerCase(Locale.ROOT));
+    // Fonte da matriz de slots: ignore ou mute de jogador (mapas persistidos)
+    private boolean blocks(UUID viewer, UUID target) {
+        return isIgnoring(viewer, target) || hasMutedPlayer(viewer, target);
     }
 
-    private boolean isBlockedByIgnore(UUID viewer, UUID sender, ChannelType type) {
-        boolean ignoring = isIgnoring(viewer, sender) || hasMutedPlayer(viewer, sender);
+    private boolean isBlockedByIgnore(int viewerSlot, int senderSlot, ChannelType type) {
+        boolean ignoring = slots.isBlocked(viewerSlot, senderSlot);
         if (!ignoring) return false;
         if (type == ChannelType.GLOBAL && !config.ignoreGlobalMessages) return false;
         return true;
@@ -192,128 +288,25 @@ public class ChatService {
         if (raw == null || raw.isBlank()) {
             return new Parsed(channels.get("local") != null ? channels.get("local") : channels.require("local"), "");
         }
-        Matcher mat = FIRST_TOKEN.matcher(raw);
-        if (mat.find()) {
-            String head = mat.group(1);
-            String tail = mat.group(2) == null ? "" : mat.group(2).trim();
-
-            if ("!".equals(head)) {
-                Channel g = channels.get("global");
-                if (g != null && canUseChannel(sender, g)) return new Parsed(g, tail);
-            } else if ("@".equals(head)) {
-                Channel s = channels.get("staff");
-                if (s != null && canUseChannel(sender, s)) return new Parsed(s, tail);
-            } else {
-                String token = head.toLowerCase(Locale.ROOT);
-                for (Channel c : channels.all()) {
-                    if (c.commands.stream().anyMatch(a -> a.equalsIgnoreCase(token))) {
-                        if (canUseChannel(sender, c)) {
-                            return new Parsed(c, tail);
-                        }
-                    }
-                }
-            }
+        // Primeiro token (até o primeiro espaço) como alias: uma busca no mapa publicado pelo ChannelManager
+        int n = raw.length();
+        int end = 0;
+        while (end < n && !Character.isWhitespace(raw.charAt(end))) end++;
+        if (end > 0 && end < n) {
+            Channel c = channels.byAlias(raw.substring(0, end).toLowerCase(Locale.ROOT));
+            if (c != null && canUseChannel(sender, c)) return new Parsed(c, raw.substring(end).trim());
         }
+        // Símbolo colado na mensagem (prefixes do toml, ex.: "!oi")
+        Channel byPrefix = n > 1 ? channels.byPrefix(raw.charAt(0)) : null;
+        if (byPrefix != null && canUseChannel(sender, byPrefix)) return new Parsed(byPrefix, raw.substring(1).trim());
+
         Channel local = channels.get("local");
         return new Parsed(local != null ? local : channels.require("local"), raw);
     }
 
-    // PLACEHOLDERS BÁSICOS
-    private Map<String, String> buildPlaceholders(Channel c, ServerPlayer sender, String rawMessage) {
-        Map<String, String> m = new HashMap<>();
-        String prefix = luckPerms.getPrefix(sender);
-        String suffix = luckPerms.getSuffix(sender);
-        String name = sender.getGameProfile().getName();
-
-        m.put("channel", c.id.substring(0,1).toUpperCase() + c.id.substring(1));
-        m.put("prefix", (prefix == null || prefix.isBlank()) ? "" : prefix);
-        m.put("suffix", (suffix == null || suffix.isBlank()) ? "" : suffix);
-        m.put("nick", name);
-        m.put("message", rawMessage);
-
-        if (c.currencyEnabled && economy.isReady()) {
-            double bal = economy.getBalance(sender, c.currencyId);
-            m.put("money", NumberUtil.formatCompact(bal));
-
-            String tycoonTag = economy.getTycoonTagIfSelf(sender, c.currencyId);
-            m.put("money_tycoon", tycoonTag == null ? "" : tycoonTag);
-        } else {
-            m.put("money", "");
-            m.put("money_tycoon", "");
-        }
-        return m;
-    }
-
-    private Map<String, String> buildPlaceholders(Channel c, ServerPlayer sender, String rawMessage, boolean applyTransforms) {
-        String msg = applyTransforms ? applyChannelTransformations(c, rawMessage) : rawMessage;
-        Map<String, String> base = buildPlaceholders(c, sender, msg);
-        base.put("message", msg);
-        return base;
-    }
-
-    // Expansão %...% (PlaceholderAPI-like) no texto
-// Expansão %...% (PlaceholderAPI-like) no texto
-    private String expandPercentTokens(String in, Channel c, ServerPlayer sender) {
-        if (in == null || in.isEmpty()) return "";
-        Matcher matcher = PERCENT_TOKEN.matcher(in);
-        StringBuffer out = new StringBuffer();
-
-        while (matcher.find()) {
-            String aRaw = matcher.group(1); // pode vir completo ex.: "nighteconomy_money_tycoon"
-            String b = matcher.group(2);
-            String c3 = matcher.group(3);
-
-            // Ajuste contra ganância do primeiro grupo: se b/c3 nulos e houver "_", dividir manualmente
-            String a = aRaw;
-            if ((b == null || b.isEmpty()) && (c3 == null || c3.isEmpty()) && aRaw != null && aRaw.indexOf('_') != -1) {
-                String[] parts = aRaw.split("_", 3);
-                a = parts[0];
-                if (parts.length > 1) b = parts[1];
-                if (parts.length > 2) c3 = parts[2];
-            }
-
-            String replacement;
-
-            if ("player".equalsIgnoreCase(a) && "click".equalsIgnoreCase(b)) {
-                replacement = "%player_click%";
-            } else if ("player_click".equalsIgnoreCase(a)) {
-                replacement = "%player_click%";
-            } else if (("luckperms".equalsIgnoreCase(a) && "prefix".equalsIgnoreCase(b)) || "luckperms_prefix".equalsIgnoreCase(a)) {
-                String p = luckPerms.getPrefix(sender);
-                replacement = p == null ? "" : p;
-            } else if (("luckperms".equalsIgnoreCase(a) && "suffix".equalsIgnoreCase(b)) || "luckperms_suffix".equalsIgnoreCase(a)) {
-                String s = luckPerms.getSuffix(sender);
-                replacement = s == null ? "" : s;
-            } else if ("player".equalsIgnoreCase(a)) {
-                replacement = sender.getGameProfile().getName();
-            } else if ("nighteconomy".equalsIgnoreCase(a) && b != null) {
-                String cur = b.toLowerCase(Locale.ROOT);
-                String suff = c3 == null ? "" : c3.toLowerCase(Locale.ROOT);
-
-                // TAG do Tycoon do REMETENTE (se não for tycoon, retorna vazio)
-                if ("tycoon".equals(suff) || "tag".equals(suff)) {
-                    String t = economy.isReady() ? economy.getTycoonTagIfSelf(sender, cur) : "";
-                    replacement = (t == null) ? "" : t;
-                }
-                // Saldo do remetente (aceita _balance ou vazio)
-                else if ("balance".equals(suff) || suff.isEmpty()) {
-                    double bal = economy.isReady() ? economy.getBalance(sender, cur) : 0.0D;
-                    replacement = NumberUtil.formatCompact(bal);
-                }
-                // Qualquer outro sufixo desconhecido de nighteconomy não vaza literal
-                else {
-                    replacement = "";
-                }
-            } else {
-                // Placeholder desconhecido: mantemos como veio
-                replacement = matcher.group(0);
-            }
-
-            // Escapar replacement para não interpretar $n e '\' como backreferences
-            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
-        }
-        matcher.appendTail(out);
-        return out.toString();
+    // Contexto por mensagem: prefixo, sufixo, saldo etc. só são consultados se o formato usar
+    private PlaceholderContext newContext(Channel c, ServerPlayer sender) {
+        return new PlaceholderContext(sender, c, luckPerms, economy);
     }
 
     private static String lstripSpaces(String s) {
@@ -327,136 +320,151 @@ public class ChatService {
         return i == s.length() ? s : s.substring(0, i);
     }
 
-    private static boolean containsUnexpandedPercent(String s) {
-        return s != null && s.indexOf('%') != -1 && PERCENT_TOKEN.matcher(s).find();
-    }
-
-    private String joinWithSingleSpace(StringBuilder buf, String s) {
-        if (s == null || s.isEmpty()) return s == null ? "" : s;
+    // Anexa s ao buffer garantindo um único espaço entre os pedaços.
+    // leadingSpaces: quantos espaços s tem à esquerda (pré-calculado para literais estáticos)
+    private static void appendJoined(StringBuilder buf, String s, int leadingSpaces) {
+        if (s == null || s.isEmpty()) return;
         boolean bufEndsWithSpace = buf.length() > 0 && buf.charAt(buf.length() - 1) == ' ';
-        boolean sStartsWithSpace = s.charAt(0) == ' ';
+        boolean sStartsWithSpace = leadingSpaces > 0;
 
         if (bufEndsWithSpace && sStartsWithSpace) {
-            int i = 0;
-            while (i < s.length() && s.charAt(i) == ' ') i++;
-            return s.substring(i); // remove os espaços extras à esquerda
+            buf.append(s, leadingSpaces, s.length()); // remove os espaços extras à esquerda
+            return;
         }
         if (!bufEndsWithSpace && !sStartsWithSpace && buf.length() > 0) {
-            return " " + s; // injeta um espaço de separação
+            buf.append(' '); // injeta um espaço de separação
         }
-        return s;
+        buf.append(s);
     }
 
-    private Component parseFormatToComponent(Channel c, String format, Map<String, String> ph, ServerPlayer sender) {
-        if (format == null) format = "";
-
-        Component result = Component.empty();
-        StringBuilder plainBuf = new StringBuilder();
-
-        Matcher m = TOKEN_PATTERN.matcher(format);
-        int last = 0;
-        boolean prevEmptyToken = false;
-
-        while (m.find()) {
-            String token = m.group(1);
-
-            // Texto antes do token
-            String chunk = format.substring(last, m.start());
-            // Não removemos espaços à esquerda aqui; o joinWithSingleSpace normaliza
-            if (!chunk.isEmpty()) {
-                chunk = expandPercentTokens(chunk, c, sender);
-                chunk = joinWithSingleSpace(plainBuf, chunk);
-                plainBuf.append(chunk);
-            }
+    private static void appendJoined(StringBuilder buf, String s) {
+        if (s == null || s.isEmpty()) return;
+        int i = 0;
+        while (i < s.length() && s.charAt(i) == ' ') i++;
+        appendJoined(buf, s, i);
+    }
 
-            // Resolver token
-            TagDefinition tag = c.getTag(token);
-            boolean tokenEmpty;
-            Component tokenComp = null;
-            String tokenVal = null;
-
-            if (tag != null) {
-                // Permissão do Tag
-                if (tag.permission != null && !tag.permission.isBlank() && !luckPerms.hasPermission(sender, tag.permission)) {
-                    tokenEmpty = true;
-                } else {
-                    // Preferimos valor do placeholder explícito; se vazio, caímos para hover[0]
-                    String fromPH = expandPercentTokens(ph.getOrDefault(token, ""), c, sender);
-                    String fromHover = (!tag.hover.isEmpty()) ? expandPercentTokens(tag.hover.get(0), c, sender) : "";
-
-                    // Como o espaçamento vem do format, limpamos bordas do conteúdo do tag
-                    if (fromPH != null) fromPH = fromPH.strip();
-                    if (fromHover != null) fromHover = fromHover.strip();
-
-                    String baseText = (fromPH != null && !fromPH.isEmpty()) ? fromPH
-                            : (fromHover != null ? fromHover : "");
-
-                    if (baseText == null || baseText.isEmpty()) {
-                        tokenEmpty = true;
-                    } else {
-                        Component comp = TextUtil.legacyToComponent(baseText);
-
-                        // Tooltip: SOMENTE 'suggest'
-                        List<String> suggestLines = new ArrayList<>();
-                        for (String s : tag.suggest) {
-                            String line = expandPercentTokens(s, c, sender);
-                            if (!line.isBlank()) suggestLines.add(line);
-                        }
-                        if (!suggestLines.isEmpty()) {
-                            String hoverJoined = String.join("\n", suggestLines);
-                            comp = comp.copy().withStyle(style ->
-                                    style.withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, TextUtil.legacyToComponent(hoverJoined)))
-                            );
-                        }
-                        if (!tag.suggestCommand.isEmpty()) {
-                            String cmd = expandPercentTokens(tag.suggestCommand.get(0), c, sender);
-                            if (!cmd.isBlank()) {
-                                comp = comp.copy().withStyle(style ->
-                                        style.withClickEvent(new ClickEvent(ClickEvent.Action.SUGGEST_COMMAND, cmd)));
-                            }
-                        }
+    // perMessage: o buffer contém o texto da mensagem; não polui o cache LRU do TextUtil
+    private static void flushPlain(MutableComponent out, StringBuilder plainBuf, boolean perMessage) {
+        if (plainBuf.length() > 0) {
+            String text = plainBuf.toString();
+            out.append(perMessage ? TextUtil.parseLegacy(text) : TextUtil.legacyToComponent(text));
+            plainBuf.setLength(0);
+        }
+    }
 
-                        tokenComp = comp;
-                        tokenEmpty = false;
+    // Renderiza um FormatTemplate já compilado: uma passada sobre os segmentos, um único builder mutável.
+    // O corpo ({message}) vira um irmão próprio para que variantes por espectador troquem só ele.
+    private RenderedMessage renderTemplate(FormatTemplate template, PlaceholderContext ctx) {
+        MutableComponent result = Component.empty();
+        StringBuilder plainBuf = new StringBuilder();
+        boolean perMessage = false;
+        int msgStart = -1, msgEnd = -1;   // região do corpo dentro de plainBuf
+        RenderedMessage.Body body = null;
+
+        for (FormatTemplate.Segment seg : template.segments) {
+            switch (seg.kind) {
+                case LITERAL -> {
+                    if (seg.dynamic) appendJoined(plainBuf, seg.placeholders.resolve(placeholders, ctx));
+                    else appendJoined(plainBuf, seg.text, seg.leadingSpaces);
+                }
+                case TOKEN -> {
+                    int before = plainBuf.length();
+                    // O texto do jogador nunca passa pelos placeholders: só o que vem do formato e dos hooks
+                    String value = ctx.token(seg.text);
+                    appendJoined(plainBuf, seg.perMessage ? value : placeholders.expand(value, ctx));
+                    if (seg.perMessage && body == null && msgStart < 0) {
+                        msgStart = before;
+                        msgEnd = plainBuf.length();
                     }
+                    perMessage |= seg.perMessage;
                 }
-            } else {
-                tokenVal = expandPercentTokens(ph.getOrDefault(token, ""), c, sender);
-                if (tokenVal == null) tokenVal = "";
-                tokenVal = joinWithSingleSpace(plainBuf, tokenVal);
-                tokenEmpty = tokenVal.isEmpty();
-            }
-
-            // Anexa token
-            if (!tokenEmpty) {
-                if (tokenComp != null) {
-                    if (plainBuf.length() > 0) {
-                        result = result.copy().append(TextUtil.legacyToComponent(plainBuf.toString()));
-                        plainBuf.setLength(0);
+                case TAG -> {
+                    Component tagComp = renderTag(ctx.channel.getTag(seg.text), ctx);
+                    if (tagComp != null) {
+                        if (msgStart >= 0) {
+                            body = flushWithBody(result, plainBuf, msgStart, msgEnd);
+                            msgStart = -1;
+                        } else {
+                            flushPlain(result, plainBuf, perMessage);
+                        }
+                        perMessage = false;
+                        result.append(tagComp);
                     }
-                    result = result.copy().append(tokenComp);
-                } else {
-                    plainBuf.append(tokenVal);
                 }
             }
-
-            prevEmptyToken = tokenEmpty;
-            last = m.end();
         }
 
-        // Sufixo após o último token
-        String tail = format.substring(last);
-        if (!tail.isEmpty()) {
-            tail = expandPercentTokens(tail, c, sender);
-            tail = joinWithSingleSpace(plainBuf, tail);
-            plainBuf.append(tail);
+        if (msgStart >= 0) {
+            body = flushWithBody(result, plainBuf, msgStart, msgEnd);
+        } else {
+            flushPlain(result, plainBuf, perMessage);
         }
-
-        if (plainBuf.length() > 0) {
-            result = result.copy().append(TextUtil.legacyToComponent(plainBuf.toString()));
+        return new RenderedMessage(result, body);
+    }
+
+    // Divide o buffer em antes/corpo/depois mantendo o estilo legado entre os pedaços
+    private static RenderedMessage.Body flushWithBody(MutableComponent out, StringBuilder plainBuf, int msgStart, int msgEnd) {
+        String text = plainBuf.toString();
+        plainBuf.setLength(0);
+        TextUtil.StyleState state = new TextUtil.StyleState();
+        if (msgStart > 0) out.append(TextUtil.parseLegacy(text.substring(0, msgStart), state));
+
+        Style bodyStyle = state.style;
+        String bodyText = text.substring(msgStart, msgEnd);
+        int index = out.getSiblings().size();
+        out.append(TextUtil.parseLegacy(bodyText, state));
+
+        if (msgEnd < text.length()) out.append(TextUtil.parseLegacy(text.substring(msgEnd), state));
+        return new RenderedMessage.Body(index, bodyStyle, bodyText);
+    }
+
+    // Componente de um tag (texto + hover 'suggest' + clique 'suggestCommand'), ou null se vazio/sem permissão
+    private Component renderTag(TagDefinition tag, PlaceholderContext ctx) {
+        if (tag == null) return null;
+        // Tag fixo: componente compartilhado montado no carregamento, só a permissão é por remetente
+        if (tag.isStatic) return hasTagPermission(tag, ctx.sender) ? tag.staticComponent : null;
+        if (!tag.cacheable || tag.rendersVolatile(placeholders)) return buildTag(tag, ctx);
+
+        UUID senderId = ctx.sender.getUUID();
+        TagRenderCache.Entry cached = tagCache.get(senderId, ctx.channel.id, tag.id);
+        if (cached != null) return cached.component;
+        Component comp = buildTag(tag, ctx);
+        tagCache.put(senderId, ctx.channel.id, tag.id, comp, tag.economyBound);
+        return comp;
+    }
+
+    private Component buildTag(TagDefinition tag, PlaceholderContext ctx) {
+        // Permissão do Tag
+        if (!hasTagPermission(tag, ctx.sender)) return null;
+
+        // Preferimos valor do placeholder explícito; se vazio, caímos para hover[0]
+        // Como o espaçamento vem do format, limpamos bordas do conteúdo do tag
+        String token = ctx.token(tag.id);
+        String baseText = ("message".equals(tag.id) ? token : placeholders.expand(token, ctx)).strip();
+        if (baseText.isEmpty() && !tag.hoverText.isEmpty()) {
+            baseText = tag.hoverText.get(0).resolve(placeholders, ctx).strip();
+        }
+        if (baseText.isEmpty()) return null;
+
+        // Tooltip: SOMENTE 'suggest'. Partes sem placeholders já vêm prontas do TagLoader
+        HoverEvent hover = tag.staticHover;
+        if (!tag.hoverStatic) {
+            List<String> lines = new ArrayList<>(tag.suggestText.size());
+            for (PlaceholderText s : tag.suggestText) lines.add(s.resolve(placeholders, ctx));
+            hover = TagDefinition.hoverFor(lines);
         }
+        ClickEvent click = tag.clickStatic ? tag.staticClick
+                : TagDefinition.clickFor(tag.suggestCommandText.get(0).resolve(placeholders, ctx));
+        // {prefix}/{suffix} puros usam o componente já convertido no snapshot do LuckPerms
+        LuckPermsHook.MetaSnapshot meta = ctx.meta();
+        if (tag.id.equals("prefix") && baseText.equals(meta.prefix.strip())) return TagDefinition.compose(meta.prefixComponent, hover, click);
+        if (tag.id.equals("suffix") && baseText.equals(meta.suffix.strip())) return TagDefinition.compose(meta.suffixComponent, hover, click);
+        return TagDefinition.compose(baseText, hover, click);
+    }
 
-        return result;
+    private boolean hasTagPermission(TagDefinition tag, ServerPlayer sender) {
+        return permissions.has(sender, tag.permissionBit, tag.permission);
     }
 
     private String applyChannelTransformations(Channel c, String message) {
@@ -483,189 +491,132 @@ public class ChatService {
         return m;
     }
 
-    private Map<String, ServerPlayer> findMentionedPlayers(MinecraftServer server, String message) {
-        if (message == null || message.isEmpty()) return Collections.emptyMap();
-        Matcher m = MENTION_PATTERN.matcher(message);
-        Map<String, ServerPlayer> map = new LinkedHashMap<>();
-        List<ServerPlayer> online = server.getPlayerList().getPlayers();
-        while (m.find()) {
-            String token = m.group(1);
-            String lower = token.toLowerCase(Locale.ROOT);
-            if (map.containsKey(lower)) continue;
-            for (ServerPlayer p : online) {
-                if (p.getGameProfile().getName().equalsIgnoreCase(token)) {
-                    map.put(lower, p);
-                    break;
-                }
-            }
-        }
-        return map;
-    }
-
-    private String highlightMentions(String message, Map<String, ServerPlayer> mentioned) {
-        if (mentioned.isEmpty() || message == null || message.isEmpty()) return message;
-        Matcher matcher = MENTION_PATTERN.matcher(message);
-        StringBuffer sb = new StringBuffer();
-        while (matcher.find()) {
-            String token = matcher.group(1);
-            ServerPlayer p = mentioned.get(token.toLowerCase(Locale.ROOT));
-            if (p != null) {
-                String shown = p.getGameProfile().getName();
-                String replacement = "&6@" + shown + "&r";
-                matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
-            } else {
-                matcher.appendReplacement(sb, Matcher.quoteReplacement(matcher.group(0)));
-            }
-        }
-        matcher.appendTail(sb);
-        return sb.toString();
-    }
-
     public void onServerChat(ServerChatEvent event) {
         ServerPlayer sender = event.getPlayer();
         String raw = event.getRawText();
         if (raw == null) return;
-
-        Parsed parsed = parseIncoming(sender, raw);
-        Channel channel = parsed.channel;
-        String messageBase = parsed.message;
-
-        if (!canUseChannel(sender, channel)) {
-            sender.sendSystemMessage(TextUtil.legacyToComponent("&cVocê não tem permissão para falar no canal " + channel.id + "."));
-            event.setCanceled(true); return;
-        }
-
-        if (channel.delaySeconds > 0 && !hasBypassDelay(sender, channel.id)) {
-            long now = System.nanoTime();
-            long nextAllowed = nextSpeakAtNanos
-                    .computeIfAbsent(sender.getUUID(), k -> new ConcurrentHashMap<>())
-                    .getOrDefault(channel.id.toLowerCase(Locale.ROOT), 0L);
-            if (now < nextAllowed) {
-                long remaining = nextAllowed - now;
-                double remainingSec = Math.max(0.05, remaining / 1_000_000_000.0);
-                String pretty = remainingSec >= 1.0
-                        ? String.format(Locale.ROOT, "%.1fs", remainingSec)
-                        : String.format(Locale.ROOT, "%dms", (int)Math.ceil(remaining / 1_000_000.0));
-                sender.sendSystemMessage(TextUtil.legacyToComponent("&cAguarde &e" + pretty + " &cpara falar no canal &e" + channel.id + "&c."));
-                event.setCanceled(true); return;
-            }
-        }
-
-        MessageFilterService.Result fr = filters.process(sender, channel, messageBase, sender.server);
-        if (fr.canceled) { event.setCanceled(true); return; }
-        String processed = fr.message;
-
-        if (!handleEconomyCost(sender, channel, processed)) {
-            event.setCanceled(true); return;
-        }
-
-        if (channel.delaySeconds > 0 && !hasBypassDelay(sender, channel.id)) {
-            long now = System.nanoTime();
-            long delayNanos = (long)(channel.delaySeconds * 1_000_000_000L);
-            nextSpeakAtNanos
-                    .computeIfAbsent(sender.getUUID(), k -> new ConcurrentHashMap<>())
-                    .put(channel.id.toLowerCase(Locale.ROOT), now + delayNanos);
-        }
-
-        MinecraftServer server = sender.server;
-        Map<String, ServerPlayer> mentioned = channel.mentionable ? findMentionedPlayers(server, processed) : Collections.emptyMap();
-        String msgForRender = applyChannelTransformations(channel, processed);
-        msgForRender = channel.mentionable ? highlightMentions(msgForRender, mentioned) : msgForRender;
-
-        Component formatted = parseFormatToComponent(channel, channel.format, buildPlaceholders(channel, sender, msgForRender, false), sender);
-
-        Set<ServerPlayer> recipients = new LinkedHashSet<>();
-        computeRecipientsAndDeliver(channel, sender, formatted, msgForRender, mentioned, recipients);
+        // O chat vanilla nunca segue adiante: a entrega sai do pipeline
         event.setCanceled(true);
 
-        if (config.channelShowMessage) {
-            if (recipients.size() == 1 && recipients.contains(sender)) {
-                sender.sendSystemMessage(TextUtil.legacyToComponent("&7Ninguém por perto recebeu sua mensagem."));
-            }
-        }
+        Parsed parsed = parseIncoming(sender, raw);
+        governor.offer(sender, parsed.channel, () -> dispatch(sender, parsed.channel, parsed.message));
     }
 
     public boolean sendToChannel(ServerPlayer sender, String channelId, String message) {
         Channel channel = channels.get(channelId.toLowerCase(Locale.ROOT));
         if (channel == null) {
-            sender.sendSystemMessage(TextUtil.legacyToComponent("&cCanal não encontrado: " + channelId));
+            delivery.send(sender, messages.get(sender, Messages.CHANNEL_NOT_FOUND, channelId), false);
             return false;
         }
+        return governor.offer(sender, channel, () -> dispatch(sender, channel, message));
+    }
+
+    // Estágio 1 (thread do servidor): checagens baratas, cooldown e snapshot do público.
+    // Filtro, economia e render seguem no pipeline; retorna false só se a mensagem foi recusada aqui.
+    private boolean dispatch(ServerPlayer sender, Channel channel, String message) {
+        long start = System.nanoTime();
+        // Adiado pelo governador e o remetente já saiu: sem slot não há como aplicar bloqueios
+        if (slots.slotOf(sender.getUUID()) < 0) return false;
         if (!canUseChannel(sender, channel)) {
-            sender.sendSystemMessage(TextUtil.legacyToComponent("&cVocê não tem permissão para falar no canal " + channel.id + "."));
+            delivery.send(sender, messages.get(sender, Messages.NO_PERMISSION_CHANNEL, channel.id), channel.bundle);
             return false;
         }
 
-        if (channel.delaySeconds > 0 && !hasBypassDelay(sender, channel.id)) {
+        long cooldownMark = 0L, cooldownPrevious = 0L;
+        if (channel.delaySeconds > 0 && !hasBypassDelay(sender, channel)) {
+            Map<String, Long> perChannel = nextSpeakAtNanos.computeIfAbsent(sender.getUUID(), k -> new ConcurrentHashMap<>());
             long now = System.nanoTime();
-            long nextAllowed = nextSpeakAtNanos
-                    .computeIfAbsent(sender.getUUID(), k -> new ConcurrentHashMap<>())
-                    .getOrDefault(channel.id.toLowerCase(Locale.ROOT), 0L);
+            long nextAllowed = perChannel.getOrDefault(channel.id, 0L);
             if (now < nextAllowed) {
                 long remaining = nextAllowed - now;
                 double remainingSec = Math.max(0.05, remaining / 1_000_000_000.0);
                 String pretty = remainingSec >= 1.0
                         ? String.format(Locale.ROOT, "%.1fs", remainingSec)
                         : String.format(Locale.ROOT, "%dms", (int)Math.ceil(remaining / 1_000_000.0));
-                sender.sendSystemMessage(TextUtil.legacyToComponent("&cAguarde &e" + pretty + " &cpara falar no canal &e" + channel.id + "&c."));
+                delivery.send(sender, messages.get(sender, Messages.COOLDOWN, pretty, channel.id), channel.bundle);
                 return false;
             }
+            // Marca já no snapshot para mensagens seguidas não passarem juntas; desfeito se o worker cancelar
+            cooldownMark = now + (long)(channel.delaySeconds * 1_000_000_000L);
+            cooldownPrevious = nextAllowed;
+            perChannel.put(channel.id, cooldownMark);
         }
 
-        MessageFilterService.Result fr = filters.process(sender, channel, message, sender.server);
-        if (fr.canceled) return false;
-        String processed = fr.message;
+        Audience audience = computeAudience(channel, sender);
+        long mark = cooldownMark, previous = cooldownPrevious;
+        pipeline.submit(sender.getUUID(), channel.id, System.nanoTime() - start,
+                out -> process(sender, channel, message, audience, mark, previous, out));
+        return true;
+    }
 
-        if (!handleEconomyCost(sender, channel, processed)) {
-            return false;
+    // Estágio 2 (worker): filtro, economia e render. Nada é enviado daqui: os envios vão para 'out'.
+    private void process(ServerPlayer sender, Channel channel, String message, Audience audience,
+                         long cooldownMark, long cooldownPrevious, ChatPipeline.Outbound out) {
+        MessageFilterService.Result fr = filters.process(sender, channel, message, sender.server);
+        if (fr.canceled) {
+            rollbackCooldown(sender.getUUID(), channel.id, cooldownMark, cooldownPrevious);
+            return;
         }
+        String processed = fr.message;
 
-        if (channel.delaySeconds > 0 && !hasBypassDelay(sender, channel.id)) {
-            long now = System.nanoTime();
-            long delayNanos = (long)(channel.delaySeconds * 1_000_000_000L);
-            nextSpeakAtNanos
-                    .computeIfAbsent(sender.getUUID(), k -> new ConcurrentHashMap<>())
-                    .put(channel.id.toLowerCase(Locale.ROOT), now + delayNanos);
+        PlaceholderContext ctx = newContext(channel, sender);
+        if (!handleEconomyCost(ctx, out)) {
+            rollbackCooldown(sender.getUUID(), channel.id, cooldownMark, cooldownPrevious);
+            return;
         }
 
-        MinecraftServer server = sender.server;
-        Map<String, ServerPlayer> mentioned = channel.mentionable ? findMentionedPlayers(server, processed) : Collections.emptyMap();
-
         String msgForRender = applyChannelTransformations(channel, processed);
-        msgForRender = channel.mentionable ? highlightMentions(msgForRender, mentioned) : msgForRender;
-
-        Component formatted = parseFormatToComponent(channel, channel.format, buildPlaceholders(channel, sender, msgForRender, false), sender);
+        Map<String, ServerPlayer> mentioned = Collections.emptyMap();
+        if (channel.mentionable) {
+            // Uma passada: resolve pelo índice de nomes e, se o realce vale para todos, já marca o texto
+            // (com highlightMentionsForAll desligado, só o mencionado vê o realce, como variante por espectador)
+            Mentions m = Mentions.scan(msgForRender, slots::byName, config.maxMentionsPerMessage, config.highlightMentionsForAll);
+            mentioned = m.players;
+            msgForRender = m.text;
+        }
 
-        Set<ServerPlayer> recipients = new LinkedHashSet<>();
-        computeRecipientsAndDeliver(channel, sender, formatted, msgForRender, mentioned, recipients);
+        ctx.setMessage(msgForRender);
+        RenderedMessage formatted = renderTemplate(channel.formatTemplate, ctx);
+        budget.message(channel.id);
+        deliver(channel, sender, formatted, ctx, mentioned, audience, out);
+    }
 
-        if (config.channelShowMessage) {
-            if (recipients.size() == 1 && recipients.contains(sender)) {
-                sender.sendSystemMessage(TextUtil.legacyToComponent("&7Ninguém por perto recebeu sua mensagem."));
-            }
-        }
-        return true;
+    private void rollbackCooldown(UUID sender, String channelId, long mark, long previous) {
+        if (mark == 0L) return;
+        Map<String, Long> perChannel = nextSpeakAtNanos.get(sender);
+        if (perChannel == null) return;
+        if (previous == 0L) perChannel.remove(channelId, mark);
+        else perChannel.replace(channelId, mark, previous);
     }
 
-    private void computeRecipientsAndDeliver(Channel channel, ServerPlayer sender, Component formatted,
-                                             String originalMessage, Map<String, ServerPlayer> mentioned, Set<ServerPlayer> recipients) {
-        MinecraftServer server = sender.server;
+    // Thread do servidor: quem recebe o formato principal, cada faixa e o formato de spy
+    private Audience computeAudience(Channel channel, ServerPlayer sender) {
+        // Índice reverso do canal: consultado uma vez por mensagem, não uma vez por jogador
+        BitSet muted = subscriptions.mutedBy(channel.id);
+        BitSet spied = subscriptions.spiedBy(channel.id);
+        BitSet online = slots.online();
+        int senderSlot = slots.slotOf(sender.getUUID());
+        Set<ServerPlayer> recipients = new LinkedHashSet<>();
+        List<List<ServerPlayer>> banded = null; // ouvintes por faixa de distância (LOCAL com [[Bands]])
 
         switch (channel.type) {
             case GLOBAL -> {
-                for (ServerPlayer p : server.getPlayerList().getPlayers()) {
-                    if (p.getUUID().equals(sender.getUUID())) { recipients.add(p); continue; }
-                    if (hasMutedChannel(p.getUUID(), channel.id)) continue;
-                    if (isBlockedByIgnore(p.getUUID(), sender.getUUID(), ChannelType.GLOBAL)) continue;
-                    recipients.add(p);
+                // online - silenciaram o canal - bloqueiam o remetente, + o próprio remetente
+                BitSet targets = (BitSet) online.clone();
+                targets.andNot(muted);
+                if (config.ignoreGlobalMessages) targets.andNot(slots.blockedBy(senderSlot));
+                recipients.add(sender);
+                for (int i = targets.nextSetBit(0); i >= 0; i = targets.nextSetBit(i + 1)) {
+                    if (i != senderSlot) recipients.add(slots.player(i));
                 }
             }
             case STAFF -> {
-                for (ServerPlayer p : server.getPlayerList().getPlayers()) {
-                    if (!canSeeStaff(p) && !hasSpy(p.getUUID(), channel.id)) continue;
-                    if (p.getUUID().equals(sender.getUUID())) { recipients.add(p); continue; }
-                    if (hasMutedChannel(p.getUUID(), channel.id)) continue;
-                    if (isBlockedByIgnore(p.getUUID(), sender.getUUID(), ChannelType.STAFF)) continue;
+                for (int i = online.nextSetBit(0); i >= 0; i = online.nextSetBit(i + 1)) {
+                    ServerPlayer p = slots.player(i);
+                    if (!spied.get(i) && !canSeeStaff(p)) continue;
+                    if (i == senderSlot) { recipients.add(p); continue; }
+                    if (muted.get(i)) continue;
+                    if (isBlockedByIgnore(i, senderSlot, ChannelType.STAFF)) continue;
                     recipients.add(p);
                 }
             }
@@ -673,82 +624,277 @@ public class ChatService {
                 double r = channel.radius <= 0 ? 100.0 : channel.radius;
                 double r2 = r * r;
                 ServerLevel level = sender.serverLevel();
-                AABB box = sender.getBoundingBox().inflate(r);
-                List<ServerPlayer> nearby = level.getEntitiesOfClass(ServerPlayer.class, box, p -> true);
+                List<ServerPlayer> nearby = new ArrayList<>();
+                // Uma única consulta até a faixa mais distante; a distância ao quadrado separa as faixas
+                grid.query(level, sender.getX(), sender.getY(), sender.getZ(), channel.outerRadius(), nearby);
 
                 recipients.add(sender);
 
                 for (ServerPlayer p : nearby) {
-                    if (p.getUUID().equals(sender.getUUID())) continue;
-                    boolean inSphere = p.distanceToSqr(sender) <= r2;
-                    boolean spy = hasSpy(p.getUUID(), channel.id);
-                    if (!(inSphere || spy)) continue;
-                    if (hasMutedChannel(p.getUUID(), channel.id)) continue;
-                    if (isBlockedByIgnore(p.getUUID(), sender.getUUID(), ChannelType.LOCAL)) continue;
-                    recipients.add(p);
+                    int i = slots.slotOf(p.getUUID());
+                    if (i < 0 || p.getUUID().equals(sender.getUUID())) continue;
+                    if (muted.get(i)) continue;
+                    if (isBlockedByIgnore(i, senderSlot, ChannelType.LOCAL)) continue;
+                    double d2 = p.distanceToSqr(sender);
+                    if (d2 <= r2) { recipients.add(p); continue; }
+                    int band = channel.bandFor(d2);
+                    if (band < 0) continue;
+                    if (banded == null) {
+                        banded = new ArrayList<>(channel.bands.size());
+                        for (int b = 0; b < channel.bands.size(); b++) banded.add(new ArrayList<>());
+                    }
+                    banded.get(band).add(p);
                 }
 
-                for (ServerPlayer p : server.getPlayerList().getPlayers()) {
-                    if (p.level() == level) continue;
-                    if (hasSpy(p.getUUID(), channel.id)) {
-                        if (!hasMutedChannel(p.getUUID(), channel.id)
-                                && !isBlockedByIgnore(p.getUUID(), sender.getUUID(), ChannelType.LOCAL)) {
-                            recipients.add(p);
-                        }
-                    }
+                // Espiões em outras dimensões recebem o formato normal; só percorre os espiões do canal
+                for (int i = spied.nextSetBit(0); i >= 0; i = spied.nextSetBit(i + 1)) {
+                    ServerPlayer p = slots.player(i);
+                    if (p == null || p.level() == level) continue;
+                    if (muted.get(i) || isBlockedByIgnore(i, senderSlot, ChannelType.LOCAL)) continue;
+                    recipients.add(p);
                 }
             }
         }
 
-        for (ServerPlayer p : recipients) {
-            p.sendSystemMessage(formatted);
+        // Silenciado/ignorado mas ainda visível (ex.: GLOBAL com ignoreGlobalMessages = false)
+        Set<ServerPlayer> dimmed = Set.of();
+        BitSet blockers = slots.blockedBy(senderSlot);
+        if (config.dimIgnoredMessages && !blockers.isEmpty()) {
+            dimmed = new HashSet<>();
+            for (ServerPlayer p : recipients) {
+                int viewer = slots.slotOf(p.getUUID());
+                if (viewer >= 0 && viewer != senderSlot && blockers.get(viewer)) dimmed.add(p);
+            }
         }
 
-        if (!spyChannels.isEmpty()) {
-            Component spyMsg = parseFormatToComponent(
-                    channel,
-                    channel.spyFormat,
-                    buildPlaceholders(channel, sender, originalMessage, false),
-                    sender
-            );
-            for (ServerPlayer p : server.getPlayerList().getPlayers()) {
-                if (!hasSpy(p.getUUID(), channel.id)) continue;
-                if (recipients.contains(p)) continue;
-                p.sendSystemMessage(spyMsg);
+        List<ServerPlayer> spies = List.of();
+        if (!spied.isEmpty()) {
+            spies = new ArrayList<>(spied.cardinality());
+            Audience heard = new Audience(sender, recipients, banded, List.of(), dimmed);
+            for (int i = spied.nextSetBit(0); i >= 0; i = spied.nextSetBit(i + 1)) {
+                ServerPlayer p = slots.player(i);
+                if (p == null || heard.hears(p)) continue;
+                spies.add(p);
+            }
+        }
+        return new Audience(sender, recipients, banded, spies, dimmed);
+    }
+
+    // Worker: renderiza as variantes/faixas/spy necessárias e registra os envios
+    private void deliver(Channel channel, ServerPlayer sender, RenderedMessage formatted, PlaceholderContext ctx,
+                         Map<String, ServerPlayer> mentioned, Audience audience, ChatPipeline.Outbound out) {
+        // Um único pacote por variante distinta (normalmente só a base)
+        deliverVariants(channel, formatted, mentioned, audience, out);
+
+        // Cada faixa só é renderizada se tiver ouvinte; mesmo contexto do render principal
+        if (audience.banded != null) {
+            for (int b = 0; b < audience.banded.size(); b++) {
+                List<ServerPlayer> listeners = audience.banded.get(b);
+                if (listeners.isEmpty()) continue;
+                RenderedMessage band = renderTemplate(channel.bands.get(b).template, ctx);
+                int size = budget.fit(channel.id, band, channel.maxBytes, sender.server.registryAccess());
+                out.add(() -> budget.record(channel.id, delivery.broadcast(listeners, band.base, channel), size));
             }
         }
 
-        if (channel.mentionable && mentioned != null && !mentioned.isEmpty()) {
+        if (!audience.spies.isEmpty()) {
+            // Mesmo contexto do render principal: nada é consultado de novo para o spy
+            RenderedMessage spyMsg = renderTemplate(channel.spyTemplate, ctx);
+            int size = budget.fit(channel.id, spyMsg, channel.maxBytes, sender.server.registryAccess());
+            out.add(() -> budget.record(channel.id, delivery.broadcast(audience.spies, spyMsg.base, channel), size));
+        }
+
+        if (channel.mentionable && !mentioned.isEmpty()) {
+            List<ServerPlayer> pinged = new ArrayList<>(mentioned.size());
             for (ServerPlayer p : mentioned.values()) {
-                if (!recipients.contains(p)) continue;
-                if (isIgnoring(p.getUUID(), sender.getUUID())) continue;
-                p.playNotifySound(SoundEvents.EXPERIENCE_ORB_PICKUP, SoundSource.PLAYERS, 0.8f, 1.2f);
+                if (audience.hears(p)) pinged.add(p);
+            }
+            if (!pinged.isEmpty()) {
+                out.add(() -> {
+                    for (ServerPlayer p : pinged) {
+                        if (isIgnoring(p.getUUID(), sender.getUUID())) continue;
+                        // Mensagem pulada pela conexão atrasada: o som também não vai
+                        if (delivery.backlog().skippedThisTick(p)) continue;
+                        p.playNotifySound(SoundEvents.EXPERIENCE_ORB_PICKUP, SoundSource.PLAYERS, 0.8f, 1.2f);
+                    }
+                });
             }
         }
+
+        if (config.channelShowMessage && audience.onlySender()) {
+            Component nobody = messages.get(sender, Messages.NOBODY_NEARBY);
+            out.add(() -> delivery.send(sender, nobody, channel.bundle));
+        }
     }
 
-    private boolean handleEconomyCost(ServerPlayer sender, Channel c, String raw) {
+    // A base é renderizada uma vez; cada variante troca só o corpo e é montada uma única vez,
+    // então o custo cresce com o número de variantes distintas e não com o de destinatários.
+    private void deliverVariants(Channel channel, RenderedMessage msg, Map<String, ServerPlayer> mentioned,
+                                 Audience audience, ChatPipeline.Outbound out) {
+        // Cada variante é medida (e cortada, se passar do orçamento) uma vez, ao ser montada
+        HolderLookup.Provider registries = audience.sender.server.registryAccess();
+        int size = budget.fit(channel.id, msg, channel.maxBytes, registries);
+        if (!msg.hasBody()) {
+            out.add(() -> budget.record(channel.id, delivery.broadcast(audience.recipients, msg.base, channel), size));
+            return;
+        }
+        boolean mentionVariants = channel.mentionable && !config.highlightMentionsForAll && !mentioned.isEmpty();
+        Set<ServerPlayer> mentionedSet = mentionVariants ? new HashSet<>(mentioned.values()) : Set.of();
+
+        List<ServerPlayer> plain = new ArrayList<>(audience.recipients.size());
+        List<ServerPlayer> dimmed = new ArrayList<>();
+        List<ServerPlayer> highlighted = new ArrayList<>();
+        for (ServerPlayer p : audience.recipients) {
+            if (audience.dimmed.contains(p)) dimmed.add(p);
+            else if (mentionedSet.contains(p)) highlighted.add(p);
+            else plain.add(p);
+        }
+
+        out.add(() -> budget.record(channel.id, delivery.broadcast(plain, msg.base, channel), size));
+        if (!dimmed.isEmpty()) {
+            RenderedMessage dim = msg.dimmed();
+            int dimSize = budget.fit(channel.id, dim, channel.maxBytes, registries);
+            out.add(() -> budget.record(channel.id, delivery.broadcast(dimmed, dim.base, channel), dimSize));
+        }
+        for (ServerPlayer p : highlighted) {
+            RenderedMessage own = msg.withBody(msg.renderBody(Mentions.highlightOnly(msg.bodyText(), p)));
+            int ownSize = budget.fit(channel.id, own, channel.maxBytes, registries);
+            out.add(() -> budget.record(channel.id, delivery.send(p, own.base, channel), ownSize));
+        }
+    }
+
+    // Usa o saldo do contexto: o render ({money}, %nighteconomy_..._balance%) reaproveita a mesma consulta
+    private boolean handleEconomyCost(PlaceholderContext ctx, ChatPipeline.Outbound out) {
+        ServerPlayer sender = ctx.sender;
+        Channel c = ctx.channel;
         if (!c.currencyEnabled || (c.messageCost <= 0 && c.minBalance <= 0)) return true;
         if (!economy.isReady()) return true;
-        double bal = economy.getBalance(sender, c.currencyId);
+        if (config.chargeAsync) return reserveCost(ctx, out);
+        // Disjuntor aberto ou saldo desconhecido: pula a cobrança ou bloqueia o canal, conforme a config
+        if (!economy.isAvailable()) return economyUnavailable(ctx, out);
+        double bal = ctx.balance(c.currencyId);
+        if (Double.isNaN(bal)) return economyUnavailable(ctx, out);
         if (bal < c.minBalance) {
-            sender.sendSystemMessage(TextUtil.legacyToComponent("&cSaldo insuficiente para falar neste canal."));
+            Component msg = messages.get(sender, Messages.INSUFFICIENT_BALANCE);
+            out.add(() -> delivery.send(sender, msg, c.bundle));
             return false;
         }
         if (c.messageCost > 0) {
             boolean ok = economy.withdraw(sender, c.currencyId, c.messageCost, "nightchat:" + c.id + " message");
             if (!ok) {
-                sender.sendSystemMessage(TextUtil.legacyToComponent("&cFalha ao cobrar custo de mensagem."));
+                Component msg = messages.get(sender, Messages.CHARGE_FAILED);
+                out.add(() -> delivery.send(sender, msg, c.bundle));
                 return false;
             }
+            ctx.adjustBalance(c.currencyId, -c.messageCost);
             if (c.showMessageCost) {
-                sender.sendSystemMessage(TextUtil.legacyToComponent("&7Custo de mensagem: &e" + c.messageCost));
+                Component msg = messages.get(sender, Messages.MESSAGE_COST, c.messageCost);
+                out.add(() -> delivery.send(sender, msg, c.bundle));
             }
         }
         return true;
     }
 
+    // Reserva contra o saldo local e segue sem esperar o NightEconomy; o débito liquida em segundo plano
+    private boolean reserveCost(PlaceholderContext ctx, ChatPipeline.Outbound out) {
+        ServerPlayer sender = ctx.sender;
+        Channel c = ctx.channel;
+        ChargeReservations.Outcome outcome = charges.reserve(sender, c);
+        if (outcome != ChargeReservations.Outcome.OK) {
+            Component msg = outcome == ChargeReservations.Outcome.BLOCKED
+                    ? messages.get(sender, Messages.CHARGE_BLOCKED, c.id)
+                    : messages.get(sender, Messages.INSUFFICIENT_BALANCE);
+            out.add(() -> delivery.send(sender, msg, c.bundle));
+            return false;
+        }
+        double available = charges.available(sender.getUUID(), c.currencyId);
+        if (!Double.isNaN(available)) ctx.seedBalance(c.currencyId, available);
+        if (c.messageCost > 0 && c.showMessageCost) {
+            Component msg = messages.get(sender, Messages.MESSAGE_COST, c.messageCost);
+            out.add(() -> delivery.send(sender, msg, c.bundle));
+        }
+        return true;
+    }
+
+    private void configureCharges() {
+        charges.configure(config.chargeBalanceRefreshSeconds, config.chargeFailureBlockSeconds,
+                config.chargeFlushSeconds, config.chargeFlushThreshold);
+    }
+
+    private void notifyChargeFailure(ChargeReservations.Failure f) {
+        ServerPlayer p = onlinePlayer(f.playerId);
+        if (p == null) return;
+        delivery.send(p, messages.get(p, Messages.CHARGE_FAILED_LATE, f.cost, f.messages, f.currencyId, charges.blockSeconds()), false);
+    }
+
+    private boolean economyUnavailable(PlaceholderContext ctx, ChatPipeline.Outbound out) {
+        if (!economy.blockWhenUnavailable()) return true;
+        ServerPlayer sender = ctx.sender;
+        Component msg = messages.get(sender, Messages.ECONOMY_UNAVAILABLE, ctx.channel.id);
+        out.add(() -> delivery.send(sender, msg, ctx.channel.bundle));
+        return false;
+    }
+
     public void rebuildFilters() {
         this.filters.rebuildFromConfig();
     }
+
+    public PlayerGrid grid() {
+        return grid;
+    }
+
+    public ChatPipeline pipeline() {
+        return pipeline;
+    }
+
+    public ChatGovernor governor() {
+        return governor;
+    }
+
+    public ChatDelivery delivery() {
+        return delivery;
+    }
+
+    public ComponentBudget budget() {
+        return budget;
+    }
+
+    public ChargeReservations charges() {
+        return charges;
+    }
+
+    private void configureGovernor() {
+        governor.configure(config.governorEnabled, config.governorTickBudgetMs, config.governorMaxPerTick,
+                config.governorMaxDeferTicks, config.governorQueue);
+    }
+
+    private ServerPlayer onlinePlayer(UUID id) {
+        int slot = slots.slotOf(id);
+        return slot < 0 ? null : slots.player(slot);
+    }
+
+    private void notifyShed(ServerPlayer sender, Channel channel) {
+        delivery.send(sender, messages.get(sender, Messages.CHAT_SHED, channel.id), channel.bundle);
+    }
+
+    // Chamado após /nightchat reload: canais/tags/config novos invalidam tudo que foi renderizado
+    public void onReload() {
+        // Canais novos podem trazer nós novos; todos os online são resolvidos de novo
+        permissions.index(channels.all());
+        permissions.clear();
+        BitSet online = slots.online();
+        for (int i = online.nextSetBit(0); i >= 0; i = online.nextSetBit(i + 1)) {
+            permissions.refresh(slots.player(i));
+        }
+        pipeline.setAsync(config.pipelineAsync);
+        configureGovernor();
+        configureCharges();
+        delivery.setEnabled(config.deliveryBundle);
+        economy.setBlockWhenUnavailable(config.economyBlockWhenUnavailable);
+        delivery.backlog().configure(config.backlogEnabled, config.backlogMaxPendingKb, config.backlogSummaryTicks);
+        tagCache.setEconomyTtlSeconds(config.tagEconomyTtlSeconds);
+        tagCache.invalidateAll();
+        TextUtil.setCacheCapacity(config.legacyCacheSize);
+        TextUtil.clearCache();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.core.HolderLookup;
+import net.minecraft.network.chat.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tamanho serializado das mensagens renderizadas e orçamento de bytes por canal.
+ * Acima do orçamento, os hovers mais caros dos irmãos da base saem primeiro (maior antes).
+ * A base é serializada uma vez por mensagem (tamanho guardado no RenderedMessage); cortar um hover
+ * desconta o tamanho do irmão com e sem ele, sem medir a mensagem de novo.
+ * O tamanho é o JSON do componente em UTF-8: aproxima o que vai na rede e serve para comparar formatos.
+ */
+public class ComponentBudget {
+
+    /** Contadores de um canal; atualizados na thread do servidor, lidos pelo /nightchat stats. */
+    public static final class Traffic {
+        private final AtomicLong messages = new AtomicLong();
+        private final AtomicLong deliveries = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong trimmed = new AtomicLong();
+
+        public long messages() { return messages.get(); }
+        public long deliveries() { return deliveries.get(); }
+        public long bytes() { return bytes.get(); }
+        public long trimmed() { return trimmed.get(); }
+    }
+
+    private static final class Trim {
+        final int index;
+        final Component stripped;
+        final int saved;
+
+        Trim(int index, Component stripped, int saved) {
+            this.index = index;
+            this.stripped = stripped;
+            this.saved = saved;
+        }
+    }
+
+    private final Map<String, Traffic> traffic = new ConcurrentHashMap<>();
+
+    public static int encodedSize(Component c, HolderLookup.Provider registries) {
+        return Component.Serializer.toJson(c, registries).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Tamanho da mensagem em bytes (medido na primeira chamada). Se maxBytes > 0 e a mensagem passar
+     * dele, remove hovers do mais caro para o mais barato até caber. Só troca irmãos da base (que é da
+     * própria mensagem): componentes de tag em cache nunca são alterados. Retorna o tamanho final.
+     */
+    public int fit(String channelId, RenderedMessage msg, int maxBytes, HolderLookup.Provider registries) {
+        if (msg.encodedSize < 0) msg.encodedSize = encodedSize(msg.base, registries);
+        int size = msg.encodedSize;
+        if (maxBytes <= 0 || size <= maxBytes) return size;
+
+        // Só irmãos com hover; o custo de cada um é o que ele perde ao ficar sem o hover
+        List<Component> siblings = msg.base.getSiblings();
+        List<Trim> candidates = new ArrayList<>();
+        for (int i = 0; i < siblings.size(); i++) {
+            Component sib = siblings.get(i);
+            if (sib.getStyle().getHoverEvent() == null) continue;
+            Component stripped = sib.copy().setStyle(sib.getStyle().withHoverEvent(null));
+            candidates.add(new Trim(i, stripped, encodedSize(sib, registries) - encodedSize(stripped, registries)));
+        }
+        candidates.sort((a, b) -> Integer.compare(b.saved, a.saved));
+
+        for (Trim t : candidates) {
+            siblings.set(t.index, t.stripped);
+            traffic(channelId).trimmed.incrementAndGet();
+            size -= t.saved;
+            if (size <= maxBytes) break;
+        }
+        msg.encodedSize = size;
+        return size;
+    }
+
+    public void message(String channelId) {
+        traffic(channelId).messages.incrementAndGet();
+    }
+
+    /** Um envio de 'bytes' entregue a 'recipients' jogadores (uma mensagem pode ter vários: variantes, faixas, spy). */
+    public void record(String channelId, int recipients, int bytes) {
+        if (recipients <= 0) return;
+        Traffic t = traffic(channelId);
+        t.deliveries.addAndGet(recipients);
+        t.bytes.addAndGet((long) recipients * bytes);
+    }
+
+    public Map<String, Traffic> traffic() {
+        return new LinkedHashMap<>(traffic);
+    }
+
+    public void clear() {
+        traffic.clear();
+    }
+
+    private Traffic traffic(String channelId) {
+        return traffic.computeIfAbsent(channelId, k -> new Traffic());
+    }
+}
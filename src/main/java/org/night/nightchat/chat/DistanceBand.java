@@ -0,0 +1,19 @@
+package org.night.nightchat.chat;
+
+/**
+ * Faixa de distância de um canal LOCAL (ex.: 30 blocos acinzentado, 50 blocos "alguém grita").
+ * Vale para quem está além do raio do canal e até 'distance' blocos, com o próprio formato.
+ */
+public class DistanceBand {
+    public final double distance;
+    public final double distanceSqr;
+    public final String format;
+    public final FormatTemplate template;
+
+    public DistanceBand(double distance, String format, FormatTemplate template) {
+        this.distance = distance;
+        this.distanceSqr = distance * distance;
+        this.format = format;
+        this.template = template == null ? FormatTemplate.EMPTY : template;
+    }
+}
@@ -0,0 +1,71 @@
+package org.night.nightchat.chat;
+
+import org.night.nightchat.placeholder.PlaceholderText;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Formato de canal compilado uma única vez no carregamento.
+ * Guarda a sequência de literais, slots {token} e slots de tag, para que a
+ * renderização por mensagem seja apenas uma passada sobre os segmentos.
+ */
+public final class FormatTemplate {
+
+    public enum Kind { LITERAL, TOKEN, TAG }
+
+    public static final class Segment {
+        public final Kind kind;
+        public final String text;          // literal, ou chave do token/tag
+        public final boolean dynamic;      // literal contém %...% a expandir por mensagem
+        public final PlaceholderText placeholders; // literal com %...% já separados (só se dynamic)
+        public final int leadingSpaces;    // espaços à esquerda (literal estático)
+        public final boolean perMessage;   // conteúdo único por mensagem ({message}): não vai para o cache de texto
+
+        Segment(Kind kind, String text, PlaceholderText placeholders) {
+            this.kind = kind;
+            this.text = text;
+            this.placeholders = placeholders;
+            this.dynamic = placeholders != null;
+            int i = 0;
+            while (i < text.length() && text.charAt(i) == ' ') i++;
+            this.leadingSpaces = i;
+            this.perMessage = kind == Kind.TOKEN && "message".equalsIgnoreCase(text);
+        }
+    }
+
+    public static final FormatTemplate EMPTY = new FormatTemplate("", List.of());
+
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\{([a-z0-9_]+)}", Pattern.CASE_INSENSITIVE);
+
+    public final String source;
+    public final List<Segment> segments;
+
+    private FormatTemplate(String source, List<Segment> segments) {
+        this.source = source;
+        this.segments = segments;
+    }
+
+    public static FormatTemplate compile(String format, Map<String, TagDefinition> tags) {
+        if (format == null || format.isEmpty()) return EMPTY;
+        List<Segment> out = new ArrayList<>();
+        Matcher m = TOKEN_PATTERN.matcher(format);
+        int last = 0;
+        while (m.find()) {
+            addLiteral(out, format.substring(last, m.start()));
+            String token = m.group(1);
+            boolean isTag = tags != null && tags.containsKey(token.toLowerCase(Locale.ROOT));
+            out.add(new Segment(isTag ? Kind.TAG : Kind.TOKEN, isTag ? token.toLowerCase(Locale.ROOT) : token, null));
+            last = m.end();
+        }
+        addLiteral(out, format.substring(last));
+        return new FormatTemplate(format, List.copyOf(out));
+    }
+
+    private static void addLiteral(List<Segment> out, String chunk) {
+        if (chunk.isEmpty()) return;
+        PlaceholderText pt = PlaceholderText.parse(chunk);
+        out.add(new Segment(Kind.LITERAL, chunk, pt.isStatic() ? null : pt));
+    }
+}
@@ -0,0 +1,75 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Extração e realce de @menções numa única passada pelo texto.
+ * Segue a regra antiga (?<!\w)@([A-Za-z0-9_]{3,16}) sem regex, resolvendo cada nome
+ * por uma busca direta e parando de resolver depois de 'cap' jogadores distintos.
+ */
+public final class Mentions {
+    private static final int MIN_NAME = 3;
+    private static final int MAX_NAME = 16;
+
+    public final Map<String, ServerPlayer> players; // nome em minúsculas -> jogador
+    public final String text;                      // texto com as menções realçadas (ou o original)
+
+    private Mentions(Map<String, ServerPlayer> players, String text) {
+        this.players = players;
+        this.text = text;
+    }
+
+    /**
+     * @param lookup    nome em minúsculas -> jogador online (ou null)
+     * @param cap       máximo de jogadores distintos resolvidos por mensagem
+     * @param highlight se true, devolve em text cada menção resolvida como "&6@Nome&r"
+     */
+    public static Mentions scan(String message, Function<String, ServerPlayer> lookup, int cap, boolean highlight) {
+        if (message == null || message.indexOf('@') < 0 || cap <= 0) {
+            return new Mentions(Collections.emptyMap(), message);
+        }
+        Map<String, ServerPlayer> found = new LinkedHashMap<>();
+        StringBuilder out = highlight ? new StringBuilder(message.length() + 16) : null;
+        int n = message.length();
+        int copied = 0;
+        int i = message.indexOf('@');
+        while (i >= 0) {
+            int start = i + 1;
+            int end = start;
+            while (end < n && end - start < MAX_NAME && isNameChar(message.charAt(end))) end++;
+            boolean boundary = i == 0 || !isNameChar(message.charAt(i - 1));
+            if (boundary && end - start >= MIN_NAME) {
+                String key = message.substring(start, end).toLowerCase(Locale.ROOT);
+                ServerPlayer p = found.get(key);
+                if (p == null && found.size() < cap) {
+                    p = lookup.apply(key);
+                    if (p != null) found.put(key, p);
+                }
+                if (p != null && out != null) {
+                    out.append(message, copied, i).append("&6@").append(p.getGameProfile().getName()).append("&r");
+                    copied = end;
+                }
+            }
+            i = message.indexOf('@', Math.max(end, i + 1));
+        }
+        if (out == null || copied == 0) return new Mentions(found, message);
+        out.append(message, copied, n);
+        return new Mentions(found, out.toString());
+    }
+
+    // Realce só do próprio espectador (variante por destinatário)
+    public static String highlightOnly(String message, ServerPlayer viewer) {
+        String self = viewer.getGameProfile().getName().toLowerCase(Locale.ROOT);
+        return scan(message, key -> key.equals(self) ? viewer : null, 1, true).text;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -190,14 +190,17 @@ public class MessageFilterService {
         return false;
     }
 
+    // process() pode rodar num worker do chat: o comando sempre executa na thread do servidor
     private void runPunishment(MinecraftServer server, ServerPlayer sender, String cmdTemplate) {
-        try {
-            String cmd = cmdTemplate
-                    .replace("@player", sender.getGameProfile().getName())
-                    .replace("@uuid", sender.getUUID().toString());
-            server.getCommands().performPrefixedCommand(server.createCommandSourceStack().withPermission(4), cmd);
-        } catch (Exception e) {
-            Nightchat.LOGGER.warn("Failed to execute punishment command: {}", e.toString());
-        }
+        String cmd = cmdTemplate
+                .replace("@player", sender.getGameProfile().getName())
+                .replace("@uuid", sender.getUUID().toString());
+        server.execute(() -> {
+            try {
+                server.getCommands().performPrefixedCommand(server.createCommandSourceStack().withPermission(4), cmd);
+            } catch (Exception e) {
+                Nightchat.LOGGER.warn("Failed to execute punishment command: {}", e.toString());
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.night.nightchat.integration.LuckPermsHook;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cada nó de permissão citado por canais e tags ganha um índice fixo no carregamento; cada jogador
+ * online guarda um BitSet com o resultado de todos eles, calculado no login e recalculado só no
+ * UserDataRecalculateEvent do LuckPerms ou no reload. No caminho quente a checagem é um bit.
+ * Índices nunca mudam de significado (um nó mantém o mesmo bit entre reloads); nó que o jogador ainda
+ * não tem resolvido cai na consulta direta ao LuckPerms.
+ */
+public class PermissionBits {
+
+    public static final String SEE_STAFF = "nightchat.channel.staff";
+    public static final String BYPASS_DELAY = "nightchat.bypass.delay";
+
+    private static final class Resolved {
+        final BitSet bits;
+        final int size; // quantos nós existiam quando foi calculado
+
+        Resolved(BitSet bits, int size) {
+            this.bits = bits;
+            this.size = size;
+        }
+    }
+
+    private final LuckPermsHook luckPerms;
+    private final Map<String, Integer> index = new HashMap<>(); // só a thread do servidor mexe
+    private volatile String[] nodes = new String[0];
+    private final Map<UUID, Resolved> resolved = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    public final int seeStaffBit;
+    public final int bypassDelayBit;
+
+    public PermissionBits(LuckPermsHook luckPerms) {
+        this.luckPerms = luckPerms;
+        this.seeStaffBit = register(SEE_STAFF);
+        this.bypassDelayBit = register(BYPASS_DELAY);
+    }
+
+    /** Índice do nó (criado se novo); -1 para nó vazio. */
+    public int register(String node) {
+        if (node == null || node.isBlank()) return -1;
+        Integer bit = index.get(node);
+        if (bit != null) return bit;
+        int next = index.size();
+        index.put(node, next);
+        String[] grown = Arrays.copyOf(nodes, next + 1);
+        grown[next] = node;
+        nodes = grown;
+        return next;
+    }
+
+    /** Indexa os nós dos canais carregados e dos seus tags. Chamado no register e no reload. */
+    public void index(Collection<Channel> channels) {
+        for (Channel c : channels) {
+            c.permissionBit = register(c.permission);
+            c.bypassDelayBit = register(BYPASS_DELAY + "." + c.id);
+            for (TagDefinition tag : c.tags.values()) {
+                tag.permissionBit = register(tag.permission);
+            }
+        }
+    }
+
+    /**
+     * Checagem de um nó de canal ou tag. Objeto ainda não indexado (recém-carregado, antes do
+     * {@link #index}) tem bit -1 e cai na consulta direta do nó; só nó vazio passa sempre.
+     */
+    public boolean has(ServerPlayer p, int bit, String node) {
+        if (bit < 0) return node == null || node.isBlank() || luckPerms.hasPermission(p, node);
+        return has(p, bit);
+    }
+
+    /** Checagem de um bit fixo (ex.: {@link #seeStaffBit}). */
+    public boolean has(ServerPlayer p, int bit) {
+        if (bit < 0) return false; // bit fixo sempre existe; na dúvida, nega
+        // Sem LuckPerms vale o nível de OP, que muda sem evento: consulta direta
+        if (luckPerms.isHooked()) {
+            Resolved r = resolved.get(p.getUUID());
+            if (r != null && bit < r.size) return r.bits.get(bit);
+        }
+        return luckPerms.hasPermission(p, nodes[bit]);
+    }
+
+    /** Resolve todos os nós conhecidos para o jogador. */
+    public void refresh(ServerPlayer p) {
+        String[] ns = nodes;
+        boolean[] allowed = luckPerms.hasPermissions(p, ns);
+        BitSet bits = new BitSet(ns.length);
+        for (int i = 0; i < ns.length; i++) {
+            if (allowed[i]) bits.set(i);
+        }
+        resolved.put(p.getUUID(), new Resolved(bits, ns.length));
+    }
+
+    /**
+     * Recalculo do LuckPerms (pode vir de outra thread): o resultado antigo sai na hora, para as
+     * checagens caírem na consulta direta, e o novo é montado no próximo tick por {@link #refreshDirty}.
+     */
+    public void invalidate(UUID id) {
+        resolved.remove(id);
+        dirty.add(id);
+    }
+
+    /** Thread do servidor: recalcula quem foi invalidado. 'lookup' devolve null para quem saiu. */
+    public void refreshDirty(Function<UUID, ServerPlayer> lookup) {
+        if (dirty.isEmpty()) return;
+        List<UUID> ids = new ArrayList<>(dirty);
+        for (UUID id : ids) {
+            dirty.remove(id);
+            ServerPlayer p = lookup.apply(id);
+            if (p != null) refresh(p);
+        }
+    }
+
+    public void forget(UUID id) {
+        resolved.remove(id);
+        dirty.remove(id);
+    }
+
+    public void clear() {
+        resolved.clear();
+        dirty.clear();
+    }
+}
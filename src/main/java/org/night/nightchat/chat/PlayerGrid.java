@@ -0,0 +1,128 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grade espacial de jogadores por ServerLevel, em colunas de chunk (16x16).
+ * Atualizada no tick do jogador só quando ele troca de coluna; a consulta de raio visita
+ * apenas as células que cobrem o quadrado do raio e confere a distância ao quadrado.
+ */
+public class PlayerGrid {
+    private static final int CELL_SHIFT = 4;
+
+    private static final class Tracked {
+        final ServerPlayer player;
+        final ServerLevel level;
+        final long cell;
+
+        Tracked(ServerPlayer player, ServerLevel level, long cell) {
+            this.player = player;
+            this.level = level;
+            this.cell = cell;
+        }
+    }
+
+    // mundo -> célula -> jogadores
+    private final Map<ServerLevel, Map<Long, Set<ServerPlayer>>> levels = new ConcurrentHashMap<>();
+    private final Map<UUID, Tracked> tracked = new ConcurrentHashMap<>();
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong candidates = new AtomicLong();
+
+    public void update(ServerPlayer player) {
+        ServerLevel level = player.serverLevel();
+        if (level == null) return;
+        long cell = cellKey(cellOf(player.getX()), cellOf(player.getZ()));
+        Tracked old = tracked.get(player.getUUID());
+        // Caso comum: mesmo jogador, mesmo mundo, mesma coluna
+        if (old != null && old.player == player && old.level == level && old.cell == cell) return;
+        if (old != null) unlink(old);
+        levels.computeIfAbsent(level, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet())
+                .add(player);
+        tracked.put(player.getUUID(), new Tracked(player, level, cell));
+    }
+
+    public void remove(UUID player) {
+        Tracked old = tracked.remove(player);
+        if (old != null) unlink(old);
+    }
+
+    public void clear() {
+        levels.clear();
+        tracked.clear();
+    }
+
+    /**
+     * Adiciona em 'out' os jogadores de 'level' a até r blocos de (x, y, z).
+     * Retorna quantos candidatos foram examinados (jogadores nas células visitadas).
+     */
+    public int query(ServerLevel level, double x, double y, double z, double r, List<ServerPlayer> out) {
+        queries.incrementAndGet();
+        Map<Long, Set<ServerPlayer>> cells = levels.get(level);
+        if (cells == null || cells.isEmpty()) return 0;
+
+        int minX = cellOf(x - r), maxX = cellOf(x + r);
+        int minZ = cellOf(z - r), maxZ = cellOf(z + r);
+        double r2 = r * r;
+        int examined = 0;
+
+        long span = (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+        if (span > cells.size()) {
+            // Raio enorme para poucos jogadores espalhados: percorre só as células ocupadas
+            for (Map.Entry<Long, Set<ServerPlayer>> e : cells.entrySet()) {
+                long key = e.getKey();
+                int cx = (int) (key >> 32), cz = (int) key;
+                if (cx < minX || cx > maxX || cz < minZ || cz > maxZ) continue;
+                examined += collect(e.getValue(), x, y, z, r2, out);
+            }
+        } else {
+            for (int cx = minX; cx <= maxX; cx++) {
+                for (int cz = minZ; cz <= maxZ; cz++) {
+                    Set<ServerPlayer> bucket = cells.get(cellKey(cx, cz));
+                    if (bucket != null) examined += collect(bucket, x, y, z, r2, out);
+                }
+            }
+        }
+        candidates.addAndGet(examined);
+        return examined;
+    }
+
+    public long queries() { return queries.get(); }
+    public long candidatesExamined() { return candidates.get(); }
+
+    private static int collect(Set<ServerPlayer> bucket, double x, double y, double z, double r2, List<ServerPlayer> out) {
+        int n = 0;
+        for (ServerPlayer p : bucket) {
+            n++;
+            if (p.isRemoved()) continue;
+            if (p.distanceToSqr(x, y, z) <= r2) out.add(p);
+        }
+        return n;
+    }
+
+    private void unlink(Tracked t) {
+        Map<Long, Set<ServerPlayer>> cells = levels.get(t.level);
+        if (cells == null) return;
+        Set<ServerPlayer> bucket = cells.get(t.cell);
+        if (bucket == null) return;
+        bucket.remove(t.player);
+        if (bucket.isEmpty()) cells.remove(t.cell, bucket);
+    }
+
+    private static int cellOf(double coord) {
+        return ((int) Math.floor(coord)) >> CELL_SHIFT;
+    }
+
+    private static long cellKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,119 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Slots inteiros densos para os jogadores online (atribuídos no login, reaproveitados após o logout)
+ * e a matriz "quem bloqueia quem" (ignore ou mute de jogador) em bitsets sobre esses slots.
+ * Também indexa o nome em minúsculas para resolver @menções sem varrer a lista de jogadores.
+ * Acessado apenas na thread do servidor, exceto {@link #byName}, que os workers do chat também leem.
+ */
+public class PlayerSlots {
+    private static final BitSet EMPTY = new BitSet(0);
+
+    private final Map<UUID, Integer> slotByUuid = new HashMap<>();
+    private final Map<String, ServerPlayer> byName = new ConcurrentHashMap<>();
+    private final BitSet online = new BitSet();
+    private ServerPlayer[] players = new ServerPlayer[64];
+    // blockedBy[alvo] = slots dos espectadores que ignoram ou silenciaram o alvo
+    private BitSet[] blockedBy = new BitSet[64];
+
+    public int join(ServerPlayer player) {
+        Integer existing = slotByUuid.get(player.getUUID());
+        if (existing != null) {
+            players[existing] = player;
+            byName.put(nameKey(player), player);
+            return existing;
+        }
+        int slot = online.nextClearBit(0);
+        ensureCapacity(slot + 1);
+        online.set(slot);
+        players[slot] = player;
+        blockedBy[slot] = new BitSet();
+        slotByUuid.put(player.getUUID(), slot);
+        byName.put(nameKey(player), player);
+        return slot;
+    }
+
+    /** Libera o slot e limpa sua linha e coluna na matriz. Retorna o slot liberado ou -1. */
+    public int leave(UUID uuid) {
+        Integer slot = slotByUuid.remove(uuid);
+        if (slot == null) return -1;
+        online.clear(slot);
+        if (players[slot] != null) byName.remove(nameKey(players[slot]));
+        players[slot] = null;
+        blockedBy[slot] = null;
+        for (int i = online.nextSetBit(0); i >= 0; i = online.nextSetBit(i + 1)) blockedBy[i].clear(slot);
+        return slot;
+    }
+
+    // A instância de ServerPlayer muda no respawn: mantém a referência do slot atual
+    public void refresh(ServerPlayer player) {
+        Integer slot = slotByUuid.get(player.getUUID());
+        if (slot != null && players[slot] != player) {
+            players[slot] = player;
+            byName.put(nameKey(player), player);
+        }
+    }
+
+    public int slotOf(UUID uuid) {
+        Integer slot = slotByUuid.get(uuid);
+        return slot == null ? -1 : slot;
+    }
+
+    /** Jogador online pelo nome já em minúsculas (Locale.ROOT), ou null. */
+    public ServerPlayer byName(String lowerName) {
+        return byName.get(lowerName);
+    }
+
+    public ServerPlayer player(int slot) {
+        return slot < 0 || slot >= players.length ? null : players[slot];
+    }
+
+    /** Bitset dos slots ocupados. Não modifique: use clone(). */
+    public BitSet online() {
+        return online;
+    }
+
+    public void setBlocked(int viewer, int target, boolean blocked) {
+        if (viewer < 0 || target < 0 || blockedBy[target] == null) return;
+        blockedBy[target].set(viewer, blocked);
+    }
+
+    public boolean isBlocked(int viewer, int target) {
+        return viewer >= 0 && target >= 0 && blockedBy[target] != null && blockedBy[target].get(viewer);
+    }
+
+    /** Espectadores que ignoram ou silenciaram o alvo. Não modifique. */
+    public BitSet blockedBy(int target) {
+        BitSet set = target < 0 ? null : blockedBy[target];
+        return set == null ? EMPTY : set;
+    }
+
+    public void clear() {
+        slotByUuid.clear();
+        byName.clear();
+        online.clear();
+        Arrays.fill(players, null);
+        Arrays.fill(blockedBy, null);
+    }
+
+    private static String nameKey(ServerPlayer player) {
+        return player.getGameProfile().getName().toLowerCase(Locale.ROOT);
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= players.length) return;
+        int n = Math.max(size, players.length * 2);
+        players = Arrays.copyOf(players, n);
+        blockedBy = Arrays.copyOf(blockedBy, n);
+    }
+}
@@ -0,0 +1,121 @@
+package org.night.nightchat.chat;
+
+import io.netty.channel.ChannelConfig;
+import net.minecraft.network.Connection;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contabilidade de saída por destinatário. Quando os bytes ainda não escritos na conexão de um
+ * jogador passam do limite, mensagens de GLOBAL/LOCAL para ele são puladas e contadas por canal;
+ * a cada 'summaryTicks' ele recebe um resumo "N mensagens puladas em #canal".
+ * STAFF e privadas nunca passam por aqui. Acessado apenas na thread do servidor.
+ */
+public class RecipientBacklog {
+
+    /** Recebe o resumo de um canal para um jogador. */
+    @FunctionalInterface
+    public interface Summary {
+        void send(ServerPlayer player, String channelId, int skipped);
+    }
+
+    private static final class Entry {
+        ServerPlayer player;
+        final Map<String, Integer> skipped = new LinkedHashMap<>();
+        long skippedTotal;
+    }
+
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Set<UUID> skippedThisTick = new HashSet<>();
+    private boolean enabled = true;
+    private long maxPendingBytes = 1L << 20;
+    private int summaryTicks = 100;
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    public void configure(boolean enabled, long maxPendingKb, int summaryTicks) {
+        this.enabled = enabled;
+        this.maxPendingBytes = Math.max(16L, maxPendingKb) * 1024L;
+        this.summaryTicks = Math.max(20, summaryTicks);
+    }
+
+    /**
+     * Bytes enfileirados no netty para o jogador e ainda não escritos no socket (0 se desconhecido).
+     * Só API pública do Channel: abaixo da marca alta o que falta até ela, acima o que falta para
+     * voltar à marca baixa.
+     */
+    public static long pendingBytes(ServerPlayer p) {
+        if (p.connection == null) return 0L;
+        Connection conn = p.connection.getConnection();
+        io.netty.channel.Channel ch = conn == null ? null : conn.channel();
+        if (ch == null) return 0L;
+        ChannelConfig cfg = ch.config();
+        if (ch.isWritable()) {
+            return Math.max(0L, cfg.getWriteBufferHighWaterMark() - ch.bytesBeforeUnwritable());
+        }
+        return cfg.getWriteBufferLowWaterMark() + ch.bytesBeforeWritable();
+    }
+
+    /** true se a mensagem do canal deve ser pulada para esse jogador (e já conta o pulo). */
+    public boolean skip(ServerPlayer p, Channel channel) {
+        if (!enabled || channel == null || channel.type == ChannelType.STAFF) return false;
+        if (pendingBytes(p) <= maxPendingBytes) return false;
+        Entry e = entries.computeIfAbsent(p.getUUID(), k -> new Entry());
+        e.player = p;
+        e.skipped.merge(channel.id, 1, Integer::sum);
+        e.skippedTotal++;
+        skipped.incrementAndGet();
+        skippedThisTick.add(p.getUUID());
+        return true;
+    }
+
+    /** Alguma mensagem de canal para o jogador foi pulada neste tick (ex.: não toca o som da menção). */
+    public boolean skippedThisTick(ServerPlayer p) {
+        return skippedThisTick.contains(p.getUUID());
+    }
+
+    /** A cada summaryTicks manda os resumos pendentes e zera as contagens por canal. */
+    public void onTick(int serverTick, Summary summary) {
+        skippedThisTick.clear();
+        if (entries.isEmpty() || serverTick % summaryTicks != 0) return;
+        for (Entry e : entries.values()) {
+            for (Map.Entry<String, Integer> s : e.skipped.entrySet()) {
+                summary.send(e.player, s.getKey(), s.getValue());
+            }
+            e.skipped.clear();
+        }
+    }
+
+    /** Mensagens puladas para o jogador ainda sem resumo. */
+    public int skippedPending(UUID id) {
+        Entry e = entries.get(id);
+        if (e == null) return 0;
+        int n = 0;
+        for (int v : e.skipped.values()) n += v;
+        return n;
+    }
+
+    /** Total de mensagens puladas para o jogador nesta sessão. */
+    public long skippedTotal(UUID id) {
+        Entry e = entries.get(id);
+        return e == null ? 0L : e.skippedTotal;
+    }
+
+    public long skipped() { return skipped.get(); }
+
+    public void forget(UUID id) {
+        entries.remove(id);
+    }
+
+    public void clear() {
+        entries.clear();
+        skippedThisTick.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import org.night.nightchat.util.TextUtil;
+
+import java.util.List;
+
+/**
+ * Mensagem renderizada uma vez, com o corpo ({message}) isolado como um irmão próprio.
+ * Variantes por espectador trocam só o corpo e compartilham todo o resto da árvore (copy-on-write).
+ */
+public final class RenderedMessage {
+    static final class Body {
+        final int index;      // índice do corpo em base.getSiblings()
+        final Style style;    // estilo legado ativo onde o corpo começa
+        final String text;    // texto legado do corpo, como foi renderizado
+
+        Body(int index, Style style, String text) {
+            this.index = index;
+            this.style = style;
+            this.text = text;
+        }
+    }
+
+    public final MutableComponent base;
+    private final int bodyIndex;     // -1 se o formato não tem {message}
+    private final Style bodyStyle;
+    private final String bodyText;
+    int encodedSize = -1;            // bytes da base serializada, medido uma vez (ComponentBudget)
+
+    RenderedMessage(MutableComponent base, Body body) {
+        this.base = base;
+        this.bodyIndex = body == null ? -1 : body.index;
+        this.bodyStyle = body == null ? Style.EMPTY : body.style;
+        this.bodyText = body == null ? "" : body.text;
+    }
+
+    public boolean hasBody() {
+        return bodyIndex >= 0;
+    }
+
+    public String bodyText() {
+        return bodyText;
+    }
+
+    // Corpo novo a partir de texto legado, herdando o estilo que o formato aplicava ao corpo original
+    public Component renderBody(String legacy) {
+        return TextUtil.parseLegacy(legacy, new TextUtil.StyleState(bodyStyle));
+    }
+
+    /**
+     * Variante com o corpo trocado: cópia rasa da base, os demais irmãos são os mesmos objetos.
+     * Tem tamanho próprio; o ComponentBudget só troca irmãos na lista da cópia, nunca na base.
+     */
+    public RenderedMessage withBody(Component body) {
+        if (bodyIndex < 0) return this;
+        MutableComponent copy = Component.empty().setStyle(base.getStyle());
+        List<Component> siblings = base.getSiblings();
+        for (int i = 0; i < siblings.size(); i++) {
+            copy.append(i == bodyIndex ? body : siblings.get(i));
+        }
+        return new RenderedMessage(copy, new Body(bodyIndex, bodyStyle, bodyText));
+    }
+
+    // Corpo em cinza escuro, sem cores/realces do remetente
+    public RenderedMessage dimmed() {
+        if (bodyIndex < 0) return this;
+        String plain = base.getSiblings().get(bodyIndex).getString();
+        return withBody(Component.literal(plain).withStyle(ChatFormatting.DARK_GRAY));
+    }
+}
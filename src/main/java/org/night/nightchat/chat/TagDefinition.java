@@ -1,5 +1,13 @@
 package org.night.nightchat.chat;
 
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.HoverEvent;
+import net.minecraft.network.chat.MutableComponent;
+import org.night.nightchat.placeholder.PlaceholderRegistry;
+import org.night.nightchat.placeholder.PlaceholderText;
+import org.night.nightchat.util.TextUtil;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -10,8 +18,78 @@ public class TagDefinition {
     public final List<String> suggest = new ArrayList<>();
     public final List<String> suggestCommand = new ArrayList<>();
     public String permission; // opcional
+    public int permissionBit = -1; // índice em PermissionBits, preenchido no index() (-1 = consulta direta)
+
+    // Versões pré-processadas (placeholders já separados) das listas acima, preenchidas pelo TagLoader
+    public final List<PlaceholderText> hoverText = new ArrayList<>();
+    public final List<PlaceholderText> suggestText = new ArrayList<>();
+    public final List<PlaceholderText> suggestCommandText = new ArrayList<>();
+
+    // Preenchidos pelo TagLoader: controlam o cache de render por remetente
+    public boolean cacheable = true;     // false se depende da mensagem em si
+    public boolean economyBound = false; // depende de saldo/tycoon (NightEconomy)
+    // Placeholder instável (de terceiros, desconhecido...): decidido contra o registry e refeito quando ele muda
+    private volatile boolean volatileRender;
+    private volatile int volatileVersion = -1;
+
+    // Partes pré-renderizadas pelo TagLoader quando não têm placeholders
+    public boolean isStatic;             // tag inteiro fixo: usar staticComponent direto
+    public Component staticComponent;    // null = o tag estático renderiza vazio
+    public boolean hoverStatic;          // 'suggest' sem placeholders: usar staticHover
+    public HoverEvent staticHover;       // null = sem tooltip
+    public boolean clickStatic;          // 'suggestCommand' sem placeholders: usar staticClick
+    public ClickEvent staticClick;       // null = sem clique
 
     public TagDefinition(String id) {
         this.id = Objects.requireNonNull(id).toLowerCase();
     }
+
+    /**
+     * true se algum placeholder do tag não é estável para o remetente (nem é da economia, que expira
+     * por TTL): o render não pode ir para o cache por remetente.
+     */
+    public boolean rendersVolatile(PlaceholderRegistry registry) {
+        int v = registry.version();
+        if (volatileVersion != v) {
+            boolean stable = true;
+            for (List<PlaceholderText> texts : List.of(hoverText, suggestText, suggestCommandText)) {
+                for (PlaceholderText t : texts) {
+                    stable &= t.allMatch(p -> p.namespace.equals("nighteconomy") || registry.isStable(p));
+                }
+            }
+            volatileRender = !stable;
+            volatileVersion = v;
+        }
+        return volatileRender;
+    }
+
+    // Tooltip a partir das linhas de 'suggest' já expandidas (linhas em branco são ignoradas)
+    public static HoverEvent hoverFor(List<String> lines) {
+        StringBuilder hover = new StringBuilder();
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            if (hover.length() > 0) hover.append('\n');
+            hover.append(line);
+        }
+        if (hover.length() == 0) return null;
+        return new HoverEvent(HoverEvent.Action.SHOW_TEXT, TextUtil.legacyToComponent(hover.toString()));
+    }
+
+    public static ClickEvent clickFor(String command) {
+        if (command == null || command.isBlank()) return null;
+        return new ClickEvent(ClickEvent.Action.SUGGEST_COMMAND, command);
+    }
+
+    // Texto do tag com tooltip/clique; null se o texto for vazio
+    public static Component compose(String baseText, HoverEvent hover, ClickEvent click) {
+        if (baseText == null || baseText.isEmpty()) return null;
+        return compose(TextUtil.legacyToComponent(baseText), hover, click);
+    }
+
+    // Mesmo que acima com o texto já convertido (ex.: prefixo do snapshot do LuckPerms)
+    public static Component compose(Component base, HoverEvent hover, ClickEvent click) {
+        if (hover == null && click == null) return base;
+        MutableComponent comp = base.copy();
+        return comp.setStyle(comp.getStyle().withHoverEvent(hover).withClickEvent(click));
+    }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package org.night.nightchat.chat;
 import com.electronwill.nightconfig.core.UnmodifiableConfig;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
 import org.night.nightchat.Nightchat;
+import org.night.nightchat.placeholder.PlaceholderContext;
+import org.night.nightchat.placeholder.PlaceholderText;
 
 import java.util.*;
 
@@ -54,10 +56,49 @@ public class TagLoader {
             String perm = optString(uc, "permission", null);
             if (perm != null && !perm.isBlank()) def.permission = perm;
 
+            compileTexts(def);
+            classify(def);
+            prerender(def);
             out.put(def.id, def);
         }
     }
 
+    private static void compileTexts(TagDefinition def) {
+        for (String h : def.hover) def.hoverText.add(PlaceholderText.parse(h));
+        for (String sg : def.suggest) def.suggestText.add(PlaceholderText.parse(sg));
+        for (String sc : def.suggestCommand) def.suggestCommandText.add(PlaceholderText.parse(sc));
+    }
+
+    // Decide se o render do tag pode ser reaproveitado entre mensagens do mesmo remetente
+    private static void classify(TagDefinition def) {
+        def.cacheable = !"message".equals(def.id);
+        boolean eco = "money".equals(def.id) || "money_tycoon".equals(def.id);
+        for (List<PlaceholderText> texts : List.of(def.hoverText, def.suggestText, def.suggestCommandText)) {
+            for (PlaceholderText t : texts) {
+                if (t.usesNamespace("nighteconomy")) eco = true;
+            }
+        }
+        def.economyBound = eco;
+    }
+
+    // Pré-renderiza as partes sem placeholders; se o tag inteiro for fixo vira um Component compartilhado
+    private static void prerender(TagDefinition def) {
+        def.hoverStatic = def.suggestText.stream().allMatch(PlaceholderText::isStatic);
+        if (def.hoverStatic) def.staticHover = TagDefinition.hoverFor(def.suggest);
+
+        def.clickStatic = def.suggestCommandText.isEmpty() || def.suggestCommandText.get(0).isStatic();
+        if (def.clickStatic) def.staticClick = def.suggestCommand.isEmpty() ? null : TagDefinition.clickFor(def.suggestCommand.get(0));
+
+        // O texto vem de um {token} do contexto (prefix, nick...) ou de hover[0]
+        boolean baseStatic = !PlaceholderContext.TOKENS.contains(def.id)
+                && (def.hoverText.isEmpty() || def.hoverText.get(0).isStatic());
+        def.isStatic = baseStatic && def.hoverStatic && def.clickStatic;
+        if (def.isStatic) {
+            String base = def.hover.isEmpty() ? "" : def.hover.get(0).strip();
+            def.staticComponent = TagDefinition.compose(base, def.staticHover, def.staticClick);
+        }
+    }
+
     private static String optString(UnmodifiableConfig uc, String key, String def) {
         Object v = uc.get(key);
         return v == null ? def : String.valueOf(v);
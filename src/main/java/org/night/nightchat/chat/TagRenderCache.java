@@ -0,0 +1,63 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.network.chat.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache por remetente dos componentes de tag já renderizados (texto + hover + clique).
+ * Invalidado por recálculo do LuckPerms, mudança de saldo, reload e logout.
+ */
+public class TagRenderCache {
+
+    public static final class Entry {
+        public final Component component; // null = o tag renderiza vazio para este jogador
+        final boolean expires;            // entradas ligadas à economia expiram por TTL
+        final long expiresAtNanos;
+
+        Entry(Component component, boolean expires, long expiresAtNanos) {
+            this.component = component;
+            this.expires = expires;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    // jogador -> canal -> tag -> entry
+    private final Map<UUID, Map<String, Map<String, Entry>>> byPlayer = new ConcurrentHashMap<>();
+    private volatile long economyTtlNanos = 5_000_000_000L;
+
+    public void setEconomyTtlSeconds(int seconds) {
+        this.economyTtlNanos = Math.max(0, seconds) * 1_000_000_000L;
+    }
+
+    public Entry get(UUID player, String channelId, String tagId) {
+        Map<String, Map<String, Entry>> perChannel = byPlayer.get(player);
+        if (perChannel == null) return null;
+        Map<String, Entry> perTag = perChannel.get(channelId);
+        if (perTag == null) return null;
+        Entry e = perTag.get(tagId);
+        if (e != null && e.expires && System.nanoTime() - e.expiresAtNanos >= 0) {
+            perTag.remove(tagId, e);
+            return null;
+        }
+        return e;
+    }
+
+    public void put(UUID player, String channelId, String tagId, Component component, boolean economyBound) {
+        if (economyBound && economyTtlNanos <= 0) return;
+        long expiresAt = economyBound ? System.nanoTime() + economyTtlNanos : 0L;
+        byPlayer.computeIfAbsent(player, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(channelId, k -> new ConcurrentHashMap<>())
+                .put(tagId, new Entry(component, economyBound, expiresAt));
+    }
+
+    public void invalidate(UUID player) {
+        byPlayer.remove(player);
+    }
+
+    public void invalidateAll() {
+        byPlayer.clear();
+    }
+}
@@ -7,9 +7,20 @@ import net.minecraft.commands.Commands;
 import net.minecraft.server.level.ServerPlayer;
 import org.night.nightchat.chat.Channel;
 import org.night.nightchat.chat.ChannelManager;
+import org.night.nightchat.chat.ChargeReservations;
+import org.night.nightchat.chat.ChatDelivery;
+import org.night.nightchat.chat.ChatGovernor;
+import org.night.nightchat.chat.ChatPipeline;
 import org.night.nightchat.chat.ChatService;
+import org.night.nightchat.chat.RecipientBacklog;
 import org.night.nightchat.config.GlobalConfig;
+import org.night.nightchat.integration.CircuitBreaker;
+import org.night.nightchat.integration.IntegrationGuards;
+import org.night.nightchat.integration.LatencyHistogram;
 import org.night.nightchat.integration.LuckPermsHook;
+import org.night.nightchat.lang.MessageCatalog;
+import org.night.nightchat.lang.Messages;
+import org.night.nightchat.util.NumberUtil;
 import org.night.nightchat.util.TextUtil;
 
 import java.util.Locale;
@@ -20,7 +31,9 @@ public class ChatCommands {
                                 ChannelManager channels,
                                 ChatService chat,
                                 LuckPermsHook lp,
-                                GlobalConfig global) {
+                                GlobalConfig global,
+                                MessageCatalog messages,
+                                IntegrationGuards guards) {
 
         // /nightchat reload
         d.register(Commands.literal("nightchat")
@@ -41,21 +54,104 @@ public class ChatCommands {
                             try {
                                 // Recarrega configs globais
                                 global.loadOrCreateDefaults(server);
+                                guards.configure(global.integrationTimeoutMs, global.integrationSlowMs,
+                                        global.integrationFailures, global.integrationOpenSeconds);
                                 // Recarrega filtros a partir da config
                                 chat.rebuildFilters();
                                 // Recarrega canais (formatos, tags, permissões, etc.)
                                 channels.loadOrCreateDefaults(server);
+                                // Descarta os tags renderizados com o conteúdo antigo
+                                chat.onReload();
+
+                                // Textos de sistema (lang do jar + config/nightchat/lang) são recompilados sob demanda
+                                messages.load(server, global.defaultLocale);
 
                                 // Avisos
-                                src.sendSuccess(() -> TextUtil.legacyToComponent("&aNightChat recarregado com sucesso."), true);
-                                src.sendSuccess(() -> TextUtil.legacyToComponent("&7Canais carregados: &e" + channels.all().size()), false);
-                                src.sendSuccess(() -> TextUtil.legacyToComponent("&7Observação: alterações em 'commands' dos canais exigem reinício para atualizar os aliases."), false);
+                                ServerPlayer viewer = src.getPlayer();
+                                src.sendSuccess(() -> messages.get(viewer, Messages.RELOAD_OK), true);
+                                src.sendSuccess(() -> messages.get(viewer, Messages.RELOAD_CHANNELS, channels.all().size()), false);
+                                src.sendSuccess(() -> messages.get(viewer, Messages.RELOAD_ALIAS_NOTE), false);
                                 return 1;
                             } catch (Throwable t) {
-                                src.sendFailure(TextUtil.legacyToComponent("&cFalha ao recarregar NightChat: " + t.getClass().getSimpleName() + " - " + t.getMessage()));
+                                src.sendFailure(messages.get(src.getPlayer(), Messages.RELOAD_FAILED, t.getClass().getSimpleName() + " - " + t.getMessage()));
                                 return 0;
                             }
-                        })));
+                        }))
+                .then(Commands.literal("stats")
+                        .executes(ctx -> {
+                            var src = ctx.getSource();
+                            long hits = TextUtil.cacheHits();
+                            long misses = TextUtil.cacheMisses();
+                            long total = hits + misses;
+                            String ratio = total == 0 ? "0" : String.format(Locale.ROOT, "%.1f", hits * 100.0 / total);
+                            int size = TextUtil.cacheSize();
+                            src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_TEXT_CACHE, size, hits, misses, ratio), false);
+
+                            ChatPipeline pipeline = chat.pipeline();
+                            src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_PIPELINE,
+                                    pipeline.queueDepth(), pipeline.workerBacklog()), false);
+                            sendStage(src, messages, "snapshot", pipeline.snapshotStage);
+                            sendStage(src, messages, "process", pipeline.processStage);
+                            sendStage(src, messages, "handoff", pipeline.handoffStage);
+                            sendStage(src, messages, "total", pipeline.totalStage);
+
+                            ChatDelivery del = chat.delivery();
+                            src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_DELIVERY,
+                                    del.messages(), del.packets(), del.bundles(), del.backlog().skipped()), false);
+                            chat.budget().traffic().forEach((id, t) -> {
+                                String kb = String.format(Locale.ROOT, "%.1f", t.bytes() / 1024.0);
+                                long avg = t.deliveries() == 0 ? 0 : t.bytes() / t.deliveries();
+                                src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_CHANNEL_BYTES,
+                                        id, t.messages(), t.deliveries(), kb, avg, t.trimmed()), false);
+                            });
+
+                            ChargeReservations charges = chat.charges();
+                            src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_CHARGES,
+                                    charges.reserved(), charges.flushes(), charges.settled(),
+                                    charges.skipped(), charges.unknown(), charges.failed(),
+                                    charges.pendingSettlements(), charges.flushSeconds(),
+                                    NumberUtil.formatCompact(charges.flushThreshold()), charges.secondsSinceLastFlush()), false);
+                            charges.pending().forEach((currency, t) ->
+                                    src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_CHARGES_PENDING,
+                                            currency, NumberUtil.formatCompact(t.amount), t.messages, t.players), false));
+
+                            ChatGovernor gov = chat.governor();
+                            src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_GOVERNOR,
+                                    gov.admitted(), gov.deferred(), gov.shed(), gov.waiting()), false);
+
+                            long queries = chat.grid().queries();
+                            long examined = chat.grid().candidatesExamined();
+                            String avg = queries == 0 ? "0" : String.format(Locale.ROOT, "%.1f", examined / (double) queries);
+                            src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_LOCAL_GRID, queries, examined, avg), false);
+                            return 1;
+                        }))
+                .then(Commands.literal("integrations")
+                        .executes(ctx -> {
+                            var src = ctx.getSource();
+                            for (CircuitBreaker b : guards.all()) {
+                                src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.INTEGRATIONS_BREAKER,
+                                        b.name, b.state(), b.consecutiveFailures(), b.shortCircuited()), false);
+                                for (LatencyHistogram h : b.calls()) {
+                                    src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.INTEGRATIONS_CALL,
+                                            h.name, h.count(), ms(h.avgMillis()), ms(h.percentileMillis(0.50)),
+                                            ms(h.percentileMillis(0.99)), ms(h.maxMillis()), h.timeouts(), h.errors()), false);
+                                }
+                            }
+                            return 1;
+                        }))
+                .then(Commands.literal("backlog")
+                        .then(Commands.argument("target", net.minecraft.commands.arguments.EntityArgument.player())
+                                .executes(ctx -> {
+                                    var src = ctx.getSource();
+                                    ServerPlayer target = net.minecraft.commands.arguments.EntityArgument.getPlayer(ctx, "target");
+                                    ChatDelivery del = chat.delivery();
+                                    String kb = String.format(Locale.ROOT, "%.1f", RecipientBacklog.pendingBytes(target) / 1024.0);
+                                    src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.BACKLOG_INFO,
+                                            target.getGameProfile().getName(), kb, del.queued(target),
+                                            del.backlog().skippedPending(target.getUUID()),
+                                            del.backlog().skippedTotal(target.getUUID())), false);
+                                    return 1;
+                                }))));
 
         // Mensagem privada
         d.register(Commands.literal("tell")
@@ -67,15 +163,15 @@ public class ChatCommands {
                                     String msg = StringArgumentType.getString(ctx, "message").trim();
 
                                     if (sender.getUUID().equals(target.getUUID())) {
-                                        sender.sendSystemMessage(TextUtil.legacyToComponent("&cVocê não pode enviar mensagem para si mesmo."));
+                                        sender.sendSystemMessage(messages.get(sender, Messages.TELL_SELF));
                                         return 0;
                                     }
                                     if (chat.isIgnoring(target.getUUID(), sender.getUUID())) {
-                                        sender.sendSystemMessage(TextUtil.legacyToComponent("&cEsse jogador está ignorando você."));
+                                        sender.sendSystemMessage(messages.get(sender, Messages.TELL_TARGET_IGNORING));
                                         return 0;
                                     }
                                     if (chat.isIgnoring(sender.getUUID(), target.getUUID())) {
-                                        sender.sendSystemMessage(TextUtil.legacyToComponent("&cVocê está ignorando esse jogador."));
+                                        sender.sendSystemMessage(messages.get(sender, Messages.TELL_YOU_IGNORING));
                                         return 0;
                                     }
 
@@ -84,8 +180,11 @@ public class ChatCommands {
                                             .replace("%receiver%", target.getGameProfile().getName())
                                             .replace("%message%", msg);
 
-                                    target.sendSystemMessage(TextUtil.legacyToComponent(fmt));
-                                    sender.sendSystemMessage(TextUtil.legacyToComponent(fmt));
+                                    // Texto único por mensagem: parse direto, sem passar pelo cache
+                                    var comp = TextUtil.parseLegacy(fmt);
+                                    // Privada nunca é pulada pela contenção de conexão lenta; passa pelo mesmo envio para manter a ordem
+                                    chat.delivery().send(target, comp, false);
+                                    chat.delivery().send(sender, comp, false);
                                     return 1;
                                 }))));
 
@@ -96,9 +195,8 @@ public class ChatCommands {
                             ServerPlayer self = ctx.getSource().getPlayerOrException();
                             ServerPlayer target = net.minecraft.commands.arguments.EntityArgument.getPlayer(ctx, "target");
                             boolean muted = chat.toggleMutePlayer(self, target);
-                            self.sendSystemMessage(TextUtil.legacyToComponent(muted
-                                    ? "&7Você silenciou &e" + target.getGameProfile().getName()
-                                    : "&7Você removeu o silêncio de &e" + target.getGameProfile().getName()));
+                            self.sendSystemMessage(messages.get(self, muted ? Messages.MUTE_ON : Messages.MUTE_OFF,
+                                    target.getGameProfile().getName()));
                             return 1;
                         })));
 
@@ -108,9 +206,8 @@ public class ChatCommands {
                             ServerPlayer self = ctx.getSource().getPlayerOrException();
                             ServerPlayer target = net.minecraft.commands.arguments.EntityArgument.getPlayer(ctx, "target");
                             boolean ignored = chat.toggleIgnore(self, target);
-                            self.sendSystemMessage(TextUtil.legacyToComponent(ignored
-                                    ? "&7Você agora está ignorando &e" + target.getGameProfile().getName()
-                                    : "&7Você parou de ignorar &e" + target.getGameProfile().getName()));
+                            self.sendSystemMessage(messages.get(self, ignored ? Messages.IGNORE_ON : Messages.IGNORE_OFF,
+                                    target.getGameProfile().getName()));
                             return 1;
                         })));
 
@@ -125,13 +222,11 @@ public class ChatCommands {
                             String id = StringArgumentType.getString(ctx, "channel").toLowerCase(Locale.ROOT);
                             Channel ch = channels.get(id);
                             if (ch == null) {
-                                self.sendSystemMessage(TextUtil.legacyToComponent("&cCanal não encontrado: " + id));
+                                self.sendSystemMessage(messages.get(self, Messages.CHANNEL_NOT_FOUND, id));
                                 return 0;
                             }
                             boolean muted = chat.toggleMuteChannel(self, id);
-                            self.sendSystemMessage(TextUtil.legacyToComponent(muted
-                                    ? "&7Você silenciou o canal &e" + id
-                                    : "&7Você reativou o canal &e" + id));
+                            self.sendSystemMessage(messages.get(self, muted ? Messages.MUTEALL_ON : Messages.MUTEALL_OFF, id));
                             return 1;
                         })));
 
@@ -147,13 +242,11 @@ public class ChatCommands {
                             String id = StringArgumentType.getString(ctx, "channel").toLowerCase(Locale.ROOT);
                             Channel ch = channels.get(id);
                             if (ch == null) {
-                                self.sendSystemMessage(TextUtil.legacyToComponent("&cCanal não encontrado: " + id));
+                                self.sendSystemMessage(messages.get(self, Messages.CHANNEL_NOT_FOUND, id));
                                 return 0;
                             }
                             boolean on = chat.toggleSpyChannel(self, id);
-                            self.sendSystemMessage(TextUtil.legacyToComponent(on
-                                    ? "&7Modo espionagem ativado para &e" + id
-                                    : "&7Modo espionagem desativado para &e" + id));
+                            self.sendSystemMessage(messages.get(self, on ? Messages.SPY_ON : Messages.SPY_OFF, id));
                             return 1;
                         })));
 
@@ -166,7 +259,7 @@ public class ChatCommands {
                         .requires(src -> {
                             try {
                                 ServerPlayer p = src.getPlayer();
-                                return p != null && (lp.hasPermission(p, ch.permission) || (ch.type != org.night.nightchat.chat.ChannelType.STAFF && p.hasPermissions(0)));
+                                return p != null && chat.canUseChannel(p, ch);
                             } catch (Exception e) { return false; }
                         })
                         .then(Commands.argument("message", StringArgumentType.greedyString())
@@ -179,4 +272,14 @@ public class ChatCommands {
             }
         }
     }
-}
\ No newline at end of file
+
+    private static void sendStage(CommandSourceStack src, MessageCatalog messages, String stage, ChatPipeline.StageStats st) {
+        String avg = String.format(Locale.ROOT, "%.2f", st.avgMillis());
+        String max = String.format(Locale.ROOT, "%.2f", st.maxMillis());
+        src.sendSuccess(() -> messages.get(src.getPlayer(), Messages.STATS_PIPELINE_STAGE, stage, st.count(), avg, max), false);
+    }
+
+    private static String ms(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+}
@@ -16,6 +16,9 @@ public class GlobalConfig {
     // [channel]
     public boolean channelShowMessage = true;
     public boolean ignoreGlobalMessages = true;
+    public boolean highlightMentionsForAll = true;
+    public boolean dimIgnoredMessages = false;
+    public int maxMentionsPerMessage = 5;
 
     // [replace]
     public boolean replaceEnable = true;
@@ -38,6 +41,45 @@ public class GlobalConfig {
     // [tell]
     public String tellFormat = "&8[%send%] -> [%receiver%]:&r %message%";
 
+    // [cache]
+    public int tagEconomyTtlSeconds = 5;
+    public int legacyCacheSize = 1024;
+
+    // [pipeline]
+    public boolean pipelineAsync = true;
+    public int pipelineWorkers = 2;
+    public int pipelineQueue = 1024;
+
+    // [delivery]
+    public boolean deliveryBundle = true;
+    public boolean backlogEnabled = true;
+    public long backlogMaxPendingKb = 1024;
+    public int backlogSummaryTicks = 100;
+
+    // [integrations]
+    public int integrationTimeoutMs = 250;
+    public int integrationSlowMs = 100;
+    public int integrationFailures = 5;
+    public int integrationOpenSeconds = 10;
+    public boolean economyBlockWhenUnavailable = false; // economyFallback = "block" | "skip-cost"
+
+    // [charges]
+    public boolean chargeAsync = true;
+    public int chargeBalanceRefreshSeconds = 30;
+    public int chargeFailureBlockSeconds = 30;
+    public int chargeFlushSeconds = 10;
+    public double chargeFlushThreshold = 100.0;
+
+    // [governor]
+    public boolean governorEnabled = true;
+    public double governorTickBudgetMs = 5.0;
+    public int governorMaxPerTick = 50;
+    public int governorMaxDeferTicks = 40;
+    public int governorQueue = 500;
+
+    // [lang]
+    public String defaultLocale = "pt_br";
+
     public void loadOrCreateDefaults(MinecraftServer server) {
         Path configDir = server.getFile("config").resolve(Nightchat.MODID);
         try {
@@ -75,6 +117,9 @@ public class GlobalConfig {
                 Config c = cfg.get("channel");
                 channelShowMessage = getBool(c, "showMessage", channelShowMessage);
                 ignoreGlobalMessages = getBool(c, "ignoreGlobalMessages", ignoreGlobalMessages);
+                highlightMentionsForAll = getBool(c, "highlightMentionsForAll", highlightMentionsForAll);
+                dimIgnoredMessages = getBool(c, "dimIgnoredMessages", dimIgnoredMessages);
+                maxMentionsPerMessage = getInt(c, "maxMentions", maxMentionsPerMessage);
             }
 
             // replace
@@ -113,6 +158,67 @@ public class GlobalConfig {
                 if (!fmtList.isEmpty()) tellFormat = fmtList.get(0);
             }
 
+            // cache
+            if (cfg.contains("cache")) {
+                Config ca = cfg.get("cache");
+                tagEconomyTtlSeconds = getInt(ca, "tagEconomyTtl", tagEconomyTtlSeconds);
+                legacyCacheSize = getInt(ca, "legacySize", legacyCacheSize);
+            }
+
+            // pipeline
+            if (cfg.contains("pipeline")) {
+                Config pl = cfg.get("pipeline");
+                pipelineAsync = getBool(pl, "async", pipelineAsync);
+                pipelineWorkers = getInt(pl, "workers", pipelineWorkers);
+                pipelineQueue = getInt(pl, "queue", pipelineQueue);
+            }
+
+            // delivery
+            if (cfg.contains("delivery")) {
+                Config dl = cfg.get("delivery");
+                deliveryBundle = getBool(dl, "bundle", deliveryBundle);
+                backlogEnabled = getBool(dl, "backpressure", backlogEnabled);
+                backlogMaxPendingKb = getInt(dl, "maxPendingKb", (int) backlogMaxPendingKb);
+                backlogSummaryTicks = getInt(dl, "summaryTicks", backlogSummaryTicks);
+            }
+
+            // integrations
+            if (cfg.contains("integrations")) {
+                Config ig = cfg.get("integrations");
+                integrationTimeoutMs = getInt(ig, "timeoutMs", integrationTimeoutMs);
+                integrationSlowMs = getInt(ig, "slowMs", integrationSlowMs);
+                integrationFailures = getInt(ig, "failures", integrationFailures);
+                integrationOpenSeconds = getInt(ig, "openSeconds", integrationOpenSeconds);
+                String fb = getString(ig, "economyFallback", economyBlockWhenUnavailable ? "block" : "skip-cost");
+                economyBlockWhenUnavailable = "block".equalsIgnoreCase(fb.trim());
+            }
+
+            // charges
+            if (cfg.contains("charges")) {
+                Config ch = cfg.get("charges");
+                chargeAsync = getBool(ch, "async", chargeAsync);
+                chargeBalanceRefreshSeconds = getInt(ch, "balanceRefreshSeconds", chargeBalanceRefreshSeconds);
+                chargeFailureBlockSeconds = getInt(ch, "failureBlockSeconds", chargeFailureBlockSeconds);
+                chargeFlushSeconds = getInt(ch, "flushSeconds", chargeFlushSeconds);
+                chargeFlushThreshold = getDouble(ch, "flushThreshold", chargeFlushThreshold);
+            }
+
+            // governor
+            if (cfg.contains("governor")) {
+                Config gv = cfg.get("governor");
+                governorEnabled = getBool(gv, "enable", governorEnabled);
+                governorTickBudgetMs = getDouble(gv, "tickBudgetMs", governorTickBudgetMs);
+                governorMaxPerTick = getInt(gv, "maxPerTick", governorMaxPerTick);
+                governorMaxDeferTicks = getInt(gv, "maxDeferTicks", governorMaxDeferTicks);
+                governorQueue = getInt(gv, "queue", governorQueue);
+            }
+
+            // lang
+            if (cfg.contains("lang")) {
+                Config l = cfg.get("lang");
+                defaultLocale = getString(l, "default", defaultLocale);
+            }
+
         } catch (Exception e) {
             Nightchat.LOGGER.error("Failed to parse global config {}", path, e);
         }
@@ -133,6 +239,13 @@ public class GlobalConfig {
         try { return Integer.parseInt(String.valueOf(v)); } catch (Exception e) { return def; }
     }
 
+    private double getDouble(Config cfg, String key, double def) {
+        if (!cfg.contains(key)) return def;
+        Object v = cfg.get(key);
+        if (v instanceof Number n) return n.doubleValue();
+        try { return Double.parseDouble(String.valueOf(v)); } catch (Exception e) { return def; }
+    }
+
     private String getString(Config cfg, String key, String def) {
         if (!cfg.contains(key)) return def;
         Object v = cfg.get(key);
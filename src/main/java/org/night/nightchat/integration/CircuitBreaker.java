@@ -0,0 +1,124 @@
+package org.night.nightchat.integration;
+
+import org.night.nightchat.Nightchat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Breaker for one external integration (all of its calls share it). After 'failureThreshold'
+ * consecutive slow, failed or timed-out calls it opens and every call returns its fallback
+ * immediately; after 'openSeconds' a single trial call is let through (half-open) and its outcome
+ * closes or reopens the breaker. Each call name keeps its own latency histogram.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public final String name;
+    private final IntegrationGuards owner;
+    private final Map<String, LatencyHistogram> calls = new ConcurrentHashMap<>();
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private final AtomicLong shortCircuited = new AtomicLong();
+
+    CircuitBreaker(String name, IntegrationGuards owner) {
+        this.name = name;
+        this.owner = owner;
+    }
+
+    /** Runs the call under the configured timeout; any failure, timeout or open breaker yields the fallback. */
+    public <T> T call(String callName, Callable<T> call, Supplier<T> fallback) {
+        return call(callName, call, fallback, fallback);
+    }
+
+    /**
+     * Like {@link #call(String, Callable, Supplier)}, but tells an open breaker (the call was never
+     * attempted) apart from a call that failed or timed out (its effect is unknown).
+     */
+    public <T> T call(String callName, Callable<T> call, Supplier<T> whenOpen, Supplier<T> whenFailed) {
+        LatencyHistogram stats = calls.computeIfAbsent(callName, LatencyHistogram::new);
+        if (!allow()) {
+            shortCircuited.incrementAndGet();
+            return whenOpen.get();
+        }
+        long start = System.nanoTime();
+        try {
+            T value = owner.run(call);
+            long elapsed = System.nanoTime() - start;
+            stats.record(elapsed);
+            if (elapsed > owner.slowNanos()) onFailure();
+            else onSuccess();
+            return value;
+        } catch (TimeoutException e) {
+            stats.record(System.nanoTime() - start);
+            stats.timeout();
+            onFailure();
+            return whenFailed.get();
+        } catch (Throwable t) {
+            stats.record(System.nanoTime() - start);
+            stats.error();
+            onFailure();
+            Nightchat.LOGGER.warn("{} {} failed: {}", name, callName, t.toString());
+            return whenFailed.get();
+        }
+    }
+
+    /** Current state; an open breaker whose wait has elapsed reports HALF_OPEN. */
+    public State state() {
+        State s = state;
+        if (s == State.OPEN && System.nanoTime() - openedAtNanos >= owner.openNanos()) return State.HALF_OPEN;
+        return s;
+    }
+
+    public boolean isOpen() {
+        return state() == State.OPEN;
+    }
+
+    public int consecutiveFailures() { return consecutiveFailures.get(); }
+    public long shortCircuited() { return shortCircuited.get(); }
+
+    public Collection<LatencyHistogram> calls() {
+        return Collections.unmodifiableCollection(calls.values());
+    }
+
+    private boolean allow() {
+        State s = state();
+        if (s == State.CLOSED) return true;
+        if (s == State.OPEN) return false;
+        // Half-open: a single trial call at a time
+        if (!trialInFlight.compareAndSet(false, true)) return false;
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    private void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            trialInFlight.set(false);
+            Nightchat.LOGGER.info("{} circuit closed", name);
+        }
+    }
+
+    private void onFailure() {
+        int n = consecutiveFailures.incrementAndGet();
+        if (state == State.HALF_OPEN || (state == State.CLOSED && n >= owner.failureThreshold())) {
+            openedAtNanos = System.nanoTime();
+            state = State.OPEN;
+            trialInFlight.set(false);
+            Nightchat.LOGGER.warn("{} circuit opened after {} slow/failed calls", name, n);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.night.nightchat.integration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timeouts and circuit breakers shared by the NightEconomy and LuckPerms hooks. With a timeout
+ * configured, each guarded call runs on a small daemon pool and the caller waits at most that long;
+ * a call that overruns keeps running in the background but its result is discarded.
+ */
+public class IntegrationGuards {
+    private static final int MAX_THREADS = 8;
+
+    private final Map<String, CircuitBreaker> breakers = new LinkedHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    private volatile long timeoutNanos = 250_000_000L;
+    private volatile long slowNanos = 100_000_000L;
+    private volatile int failureThreshold = 5;
+    private volatile long openNanos = 10_000_000_000L;
+
+    public IntegrationGuards() {
+        AtomicInteger n = new AtomicInteger();
+        // No queue: with every thread stuck on a slow backend, new calls fail fast into their fallback
+        this.executor = new ThreadPoolExecutor(0, MAX_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "NightChat-Integration-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public synchronized CircuitBreaker breaker(String name) {
+        return breakers.computeIfAbsent(name, k -> new CircuitBreaker(k, this));
+    }
+
+    public synchronized Collection<CircuitBreaker> all() {
+        return Collections.unmodifiableCollection(new ArrayList<>(breakers.values()));
+    }
+
+    public void configure(int timeoutMillis, int slowMillis, int failureThreshold, int openSeconds) {
+        this.timeoutNanos = Math.max(0, timeoutMillis) * 1_000_000L;
+        this.slowNanos = Math.max(1, slowMillis) * 1_000_000L;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = Math.max(1, openSeconds) * 1_000_000_000L;
+    }
+
+    long slowNanos() { return slowNanos; }
+    int failureThreshold() { return failureThreshold; }
+    long openNanos() { return openNanos; }
+
+    <T> T run(Callable<T> call) throws Exception {
+        long timeout = timeoutNanos;
+        if (timeout <= 0) return call.call();
+        Future<T> f = executor.submit(call);
+        try {
+            return f.get(timeout, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            f.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.night.nightchat.integration;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram for one integration call, plus error and timeout counters.
+ * Percentiles are reported as the upper bound of the bucket that contains them.
+ */
+public final class LatencyHistogram {
+    private static final long[] BOUNDS_MICROS = {
+            250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000
+    };
+
+    public final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos) {
+        long micros = nanos / 1_000L;
+        int b = 0;
+        while (b < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[b]) b++;
+        buckets.incrementAndGet(b);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void error() { errors.incrementAndGet(); }
+    void timeout() { timeouts.incrementAndGet(); }
+
+    public long count() { return count.get(); }
+    public long errors() { return errors.get(); }
+    public long timeouts() { return timeouts.get(); }
+    public double avgMillis() { long c = count.get(); return c == 0 ? 0 : totalNanos.get() / (double) c / 1_000_000.0; }
+    public double maxMillis() { return maxNanos.get() / 1_000_000.0; }
+
+    /** Upper bound in ms of the bucket holding quantile q (0..1); the max when it falls past the last bound. */
+    public double percentileMillis(double q) {
+        long c = count.get();
+        if (c == 0) return 0;
+        long rank = (long) Math.ceil(q * c);
+        long seen = 0;
+        for (int b = 0; b < buckets.length(); b++) {
+            seen += buckets.get(b);
+            if (seen >= rank) return b < BOUNDS_MICROS.length ? BOUNDS_MICROS[b] / 1_000.0 : maxMillis();
+        }
+        return maxMillis();
+    }
+}
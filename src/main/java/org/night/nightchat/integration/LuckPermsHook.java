@@ -2,20 +2,72 @@ package org.night.nightchat.integration;
 
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.cacheddata.CachedMetaData;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.user.User;
 import net.luckperms.api.query.QueryOptions;
 import net.luckperms.api.util.Tristate;
+import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import org.night.nightchat.Nightchat;
+import org.night.nightchat.util.TextUtil;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class LuckPermsHook {
+    /**
+     * Immutable view of a player's LuckPerms meta: prefix, suffix (raw and already parsed from legacy
+     * colour codes) and the first value of every meta key. Rebuilt on login and on every recalculation.
+     */
+    public static final class MetaSnapshot {
+        public static final MetaSnapshot EMPTY = new MetaSnapshot("", "", Map.of());
+
+        public final String prefix;
+        public final String suffix;
+        public final Component prefixComponent; // prefix.strip() parsed; shared, do not modify
+        public final Component suffixComponent;
+        private final Map<String, String> meta;
+
+        MetaSnapshot(String prefix, String suffix, Map<String, String> meta) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.prefixComponent = TextUtil.parseLegacy(prefix.strip());
+            this.suffixComponent = TextUtil.parseLegacy(suffix.strip());
+            this.meta = meta;
+        }
+
+        /** First value of a meta key, or "" when unset. */
+        public String meta(String key) {
+            return meta.getOrDefault(key, "");
+        }
+    }
+
     private LuckPerms api;
+    private EventSubscription<UserDataRecalculateEvent> recalcSubscription;
+    private final List<Consumer<UUID>> recalcListeners = new CopyOnWriteArrayList<>();
+    private final Map<UUID, MetaSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final CircuitBreaker breaker;
+
+    /**
+     * Lookups go through the "luckperms" circuit breaker. Fallbacks: permission checks use the
+     * vanilla op level (as when LuckPerms is absent) and meta keeps the last snapshot.
+     */
+    public LuckPermsHook(IntegrationGuards guards) {
+        this.breaker = guards.breaker("luckperms");
+    }
 
     public void tryHook() {
         try {
             this.api = LuckPermsProvider.get();
+            subscribeEvents();
             Nightchat.LOGGER.info("Hooked into LuckPerms API.");
         } catch (Throwable t) {
             Nightchat.LOGGER.warn("LuckPerms not found. Falling back to vanilla permissions.");
@@ -23,31 +75,114 @@ public class LuckPermsHook {
         }
     }
 
+    /**
+     * Registers a callback fired (possibly off-thread) whenever LuckPerms recalculates a user's
+     * cached data, i.e. when their permissions, prefix or suffix may have changed.
+     */
+    public void onUserDataRecalculate(Consumer<UUID> listener) {
+        recalcListeners.add(listener);
+    }
+
+    private void subscribeEvents() {
+        if (recalcSubscription != null) recalcSubscription.close();
+        recalcSubscription = api.getEventBus().subscribe(UserDataRecalculateEvent.class, e -> {
+            UUID uuid = e.getUser().getUniqueId();
+            // Only online players keep a snapshot; refresh it before listeners drop what was built from it
+            if (snapshots.containsKey(uuid)) snapshots.put(uuid, snapshotOf(e.getUser()));
+            for (Consumer<UUID> l : recalcListeners) {
+                try {
+                    l.accept(uuid);
+                } catch (Throwable t) {
+                    Nightchat.LOGGER.warn("LuckPerms recalculate listener failed: {}", t.toString());
+                }
+            }
+        });
+    }
+
+    public boolean isHooked() {
+        return api != null;
+    }
+
     public boolean hasPermission(ServerPlayer p, String node) {
         if (node == null || node.isEmpty()) return true;
         if (api == null) {
             // fallback vanilla: ops têm tudo, outros apenas canais não-staff
             return p.hasPermissions(2);
         }
-        User user = api.getUserManager().getUser(p.getUUID());
-        if (user == null) return p.hasPermissions(2);
-        Tristate t = user.getCachedData().getPermissionData(QueryOptions.defaultContextualOptions()).checkPermission(node);
-        return t.asBoolean();
+        UUID id = p.getUUID();
+        Boolean allowed = breaker.call("checkPermission", () -> {
+            User user = api.getUserManager().getUser(id);
+            if (user == null) return null;
+            Tristate t = user.getCachedData().getPermissionData(QueryOptions.defaultContextualOptions()).checkPermission(node);
+            return t.asBoolean();
+        }, () -> null);
+        return allowed != null ? allowed : p.hasPermissions(2);
+    }
+
+    /** Checks several nodes in one guarded lookup; same fallback as {@link #hasPermission}. */
+    public boolean[] hasPermissions(ServerPlayer p, String[] nodes) {
+        boolean[] checked = null;
+        if (api != null) {
+            UUID id = p.getUUID();
+            // o array nasce dentro da chamada: se ela estourar o timeout e seguir rodando, não escreve no nosso
+            checked = breaker.call("checkPermissions", () -> {
+                User user = api.getUserManager().getUser(id);
+                if (user == null) return null;
+                var data = user.getCachedData().getPermissionData(QueryOptions.defaultContextualOptions());
+                boolean[] result = new boolean[nodes.length];
+                for (int i = 0; i < nodes.length; i++) {
+                    result[i] = nodes[i] == null || nodes[i].isEmpty() || data.checkPermission(nodes[i]).asBoolean();
+                }
+                return result;
+            }, () -> null);
+        }
+        if (checked != null) return checked;
+        boolean[] out = new boolean[nodes.length];
+        Arrays.fill(out, p.hasPermissions(2));
+        return out;
+    }
+
+    /**
+     * Cached meta of an online player. Filled by {@link #loadMeta} at login and kept current by
+     * UserDataRecalculateEvent; a player without a snapshot yet is loaded on first use.
+     */
+    public MetaSnapshot meta(ServerPlayer p) {
+        MetaSnapshot s = snapshots.get(p.getUUID());
+        return s != null ? s : loadMeta(p);
+    }
+
+    public MetaSnapshot loadMeta(ServerPlayer p) {
+        if (api == null) return MetaSnapshot.EMPTY;
+        UUID id = p.getUUID();
+        MetaSnapshot s = breaker.call("loadMeta", () -> {
+            User user = api.getUserManager().getUser(id);
+            return user == null ? null : snapshotOf(user);
+        }, () -> null);
+        if (s == null) return snapshots.getOrDefault(id, MetaSnapshot.EMPTY); // not loaded yet: try again next time
+        snapshots.put(id, s);
+        return s;
+    }
+
+    public void forgetMeta(UUID uuid) {
+        snapshots.remove(uuid);
     }
 
     public String getPrefix(ServerPlayer p) {
-        if (api == null) return "";
-        User user = api.getUserManager().getUser(p.getUUID());
-        if (user == null) return "";
-        String pre = user.getCachedData().getMetaData().getPrefix();
-        return pre == null ? "" : pre;
+        return meta(p).prefix;
     }
 
     public String getSuffix(ServerPlayer p) {
-        if (api == null) return "";
-        User user = api.getUserManager().getUser(p.getUUID());
-        if (user == null) return "";
-        String suf = user.getCachedData().getMetaData().getSuffix();
-        return suf == null ? "" : suf;
+        return meta(p).suffix;
+    }
+
+    private static MetaSnapshot snapshotOf(User user) {
+        CachedMetaData data = user.getCachedData().getMetaData();
+        Map<String, String> meta = new HashMap<>();
+        for (Map.Entry<String, List<String>> e : data.getMeta().entrySet()) {
+            if (!e.getValue().isEmpty()) meta.put(e.getKey(), e.getValue().get(0));
+        }
+        String pre = data.getPrefix();
+        String suf = data.getSuffix();
+        return new MetaSnapshot(pre == null ? "" : pre, suf == null ? "" : suf, Map.copyOf(meta));
     }
 }
\ No newline at end of file
@@ -7,10 +7,46 @@ import org.night.nighteconomy.api.data.TycoonInfo;
 import org.night.nightchat.Nightchat;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+/**
+ * NightEconomy calls go through the "economy" circuit breaker. Fallbacks when a call fails, times out
+ * or the breaker is open: balance and tycoon use the last value seen (balance is NaN if none).
+ * A debit skipped by an open breaker either skips the cost or refuses, depending on
+ * {@link #setBlockWhenUnavailable}; a debit that failed or timed out is never counted as paid.
+ */
 public class NightEconomyHook {
+
+    /** Outcome of {@link #debit}. */
+    public enum Debit {
+        /** The account was debited. */
+        OK,
+        /** NightEconomy refused (insufficient funds), or the breaker is open and the config blocks. */
+        REFUSED,
+        /** Not attempted (API missing or breaker open with skip-cost): the cost is forgiven. */
+        SKIPPED,
+        /** The call threw or timed out; the debit may or may not have landed. */
+        UNKNOWN
+    }
+
     private NightEconomyAPI api;
+    private final List<Consumer<UUID>> balanceListeners = new CopyOnWriteArrayList<>();
+    private final CircuitBreaker breaker;
+    private volatile boolean blockWhenUnavailable;
+
+    private final Map<UUID, Map<String, Double>> lastBalance = new ConcurrentHashMap<>();
+    private final Map<String, TycoonInfo> lastTycoon = new ConcurrentHashMap<>();
+    private final Map<String, String> lastTycoonTag = new ConcurrentHashMap<>();
+
+    public NightEconomyHook(IntegrationGuards guards) {
+        this.breaker = guards.breaker("economy");
+    }
 
     public void setApi(NightEconomyAPI api) {
         this.api = api;
@@ -21,33 +57,85 @@ public class NightEconomyHook {
         return api != null;
     }
 
+    /** False while the breaker is open: callers should apply their fallback without trying. */
+    public boolean isAvailable() {
+        return api != null && !breaker.isOpen();
+    }
+
+    /** true = debits refuse (channel blocked) while unavailable; false = the cost is skipped. */
+    public void setBlockWhenUnavailable(boolean block) {
+        this.blockWhenUnavailable = block;
+    }
+
+    public boolean blockWhenUnavailable() {
+        return blockWhenUnavailable;
+    }
+
+    public void forget(UUID playerId) {
+        lastBalance.remove(playerId);
+    }
+
+    /**
+     * Registers a callback fired when a player's balance is known to have changed.
+     * NightChat's own debits notify automatically; other code may call {@link #notifyBalanceChanged(UUID)}.
+     */
+    public void onBalanceChanged(Consumer<UUID> listener) {
+        balanceListeners.add(listener);
+    }
+
+    public void notifyBalanceChanged(UUID playerId) {
+        for (Consumer<UUID> l : balanceListeners) {
+            try {
+                l.accept(playerId);
+            } catch (Throwable t) {
+                Nightchat.LOGGER.warn("NightEconomy balance listener failed: {}", t.toString());
+            }
+        }
+    }
+
     /**
      * Returns the player's balance (double) for the given currency.
-     * The API returns BigDecimal; we safely convert here.
+     * The API returns BigDecimal; we safely convert here. When the call cannot complete, returns the
+     * last balance seen for this player, or NaN if there is none.
      */
     public double getBalance(ServerPlayer p, String currencyId) {
         if (api == null) return Double.MAX_VALUE; // do not block features if API isn't ready yet
-        try {
-            BigDecimal bal = api.getBalance(p.getUUID(), currencyId);
-            return bal != null ? bal.doubleValue() : 0.0D;
-        } catch (Throwable t) {
-            Nightchat.LOGGER.warn("NightEconomy getBalance failed: {}", t.toString());
-            return 0.0D;
-        }
+        UUID id = p.getUUID();
+        Double bal = breaker.call("getBalance", () -> {
+            BigDecimal b = api.getBalance(id, currencyId);
+            return b != null ? b.doubleValue() : 0.0D;
+        }, () -> null);
+        if (bal == null) return lastBalance.getOrDefault(id, Map.of()).getOrDefault(currencyId, Double.NaN);
+        lastBalance.computeIfAbsent(id, k -> new ConcurrentHashMap<>()).put(currencyId, bal);
+        return bal;
     }
 
     /**
      * Debits the player's account in the given currency.
      * Uses the new API method: tryDebit(UUID playerId, String currencyId, BigDecimal amount, String reason)
+     * Returns true when debited or skipped; false when refused, failed or timed out.
      */
     public boolean withdraw(ServerPlayer p, String currencyId, double amount, String reason) {
-        if (api == null || amount <= 0) return true; // don't block when API not ready or invalid amount
-        try {
-            return api.tryDebit(p.getUUID(), currencyId, BigDecimal.valueOf(amount), reason != null ? reason : "");
-        } catch (Throwable t) {
-            Nightchat.LOGGER.warn("NightEconomy tryDebit failed: {}", t.toString());
-            return false;
+        Debit d = debit(p, currencyId, amount, reason);
+        return d == Debit.OK || d == Debit.SKIPPED;
+    }
+
+    /** Same as {@link #withdraw}, but reports the outcome so callers can retry an UNKNOWN debit. */
+    public Debit debit(ServerPlayer p, String currencyId, double amount, String reason) {
+        if (amount <= 0) return Debit.OK;
+        if (api == null) return Debit.SKIPPED; // don't block when API not ready
+        UUID id = p.getUUID();
+        String why = reason != null ? reason : "";
+        Debit d = breaker.call("tryDebit",
+                () -> api.tryDebit(id, currencyId, BigDecimal.valueOf(amount), why) ? Debit.OK : Debit.REFUSED,
+                () -> blockWhenUnavailable ? Debit.REFUSED : Debit.SKIPPED,
+                () -> Debit.UNKNOWN);
+        if (d == Debit.OK) {
+            Map<String, Double> last = lastBalance.get(id);
+            if (last != null) last.computeIfPresent(currencyId, (k, v) -> v - amount);
+            notifyBalanceChanged(id);
         }
+        return d;
     }
 
     /**
@@ -57,7 +145,7 @@ public class NightEconomyHook {
     public String getTycoonName(String currencyId, MinecraftServer server) {
         if (api == null) return null;
         try {
-            TycoonInfo info = api.getCurrentTycoon(currencyId);
+            TycoonInfo info = currentTycoon(currencyId);
             if (info == null) return null;
 
             // Prefer the name provided by the API
@@ -82,11 +170,14 @@ public class NightEconomyHook {
     public String getTycoonTagIfSelf(ServerPlayer p, String currencyId) {
         if (api == null) return "";
         try {
-            TycoonInfo info = api.getCurrentTycoon(currencyId);
+            TycoonInfo info = currentTycoon(currencyId);
             if (info != null && info.playerId() != null && info.playerId().equals(p.getUUID())) {
                 String tag = info.tag();
                 if (tag == null || tag.isBlank()) {
-                    tag = api.getTycoonTag(currencyId);
+                    String fetched = breaker.call("getTycoonTag", () -> api.getTycoonTag(currencyId),
+                            () -> lastTycoonTag.get(currencyId));
+                    if (fetched != null) lastTycoonTag.put(currencyId, fetched);
+                    tag = fetched;
                 }
                 return tag == null ? "" : tag;
             }
@@ -95,4 +186,14 @@ public class NightEconomyHook {
         }
         return "";
     }
-}
\ No newline at end of file
+
+    // Last tycoon seen is the fallback; an empty answer (no tycoon) clears it
+    private TycoonInfo currentTycoon(String currencyId) {
+        Optional<TycoonInfo> info = breaker.call("getCurrentTycoon",
+                () -> Optional.ofNullable(api.getCurrentTycoon(currencyId)),
+                () -> Optional.ofNullable(lastTycoon.get(currencyId)));
+        if (info.isPresent()) lastTycoon.put(currencyId, info.get());
+        else lastTycoon.remove(currencyId);
+        return info.orElse(null);
+    }
+}
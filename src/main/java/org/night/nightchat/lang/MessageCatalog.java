@@ -0,0 +1,146 @@
+package org.night.nightchat.lang;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import org.night.nightchat.Nightchat;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Catálogo de mensagens de sistema por idioma. Cada idioma é carregado na primeira vez que um
+ * jogador com aquele locale precisa dele (assets/nightchat/lang do jar, sobrescrito por
+ * config/nightchat/lang) e todas as entradas são compiladas uma única vez.
+ */
+public class MessageCatalog {
+    private static final String FALLBACK_LOCALE = "en_us";
+    // O locale vem do cliente: só nomes de idioma válidos viram chave de cache ou nome de arquivo
+    private static final Pattern LOCALE = Pattern.compile("[a-z]{2,3}_[a-z]{2,4}");
+    private static final int MAX_MISSING = 64;
+
+    private final Map<String, Map<String, MessageTemplate>> byLocale = new ConcurrentHashMap<>();
+    // Locales válidos sem arquivo, em ordem de chegada: cheio, sai só o mais antigo
+    private final Set<String> missing = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_MISSING;
+                }
+            }));
+    private volatile Path configDir;
+    private volatile String defaultLocale = "pt_br";
+
+    public void load(MinecraftServer server, String defaultLocale) {
+        this.configDir = server.getFile("config").resolve(Nightchat.MODID).resolve("lang");
+        String def = normalize(defaultLocale);
+        this.defaultLocale = def != null ? def : FALLBACK_LOCALE;
+        try {
+            Files.createDirectories(configDir);
+        } catch (Exception e) {
+            Nightchat.LOGGER.warn("Failed to create lang directory {}: {}", configDir, e.toString());
+        }
+        byLocale.clear();
+        missing.clear();
+    }
+
+    public Component get(ServerPlayer viewer, MessageKey key, Object... args) {
+        return get(localeOf(viewer), key, args);
+    }
+
+    public Component get(String locale, MessageKey key, Object... args) {
+        MessageTemplate t = lookup(available(locale), key.id);
+        if (t == null) t = lookup(defaultLocale, key.id);
+        if (t == null) t = lookup(FALLBACK_LOCALE, key.id);
+        if (t == null) return Component.literal(key.id);
+        return t.render(args);
+    }
+
+    private String localeOf(ServerPlayer viewer) {
+        if (viewer == null) return defaultLocale;
+        try {
+            String lang = viewer.clientInformation().language();
+            return lang == null || lang.isBlank() ? defaultLocale : lang;
+        } catch (Throwable t) {
+            return defaultLocale;
+        }
+    }
+
+    private MessageTemplate lookup(String locale, String id) {
+        return byLocale.computeIfAbsent(locale, this::compileLocale).get(id);
+    }
+
+    // Locale do cliente já normalizado e com arquivo (jar ou config); senão o padrão do servidor.
+    // Só idiomas existentes entram em byLocale; os inexistentes ficam num conjunto limitado.
+    private String available(String locale) {
+        String loc = normalize(locale);
+        if (loc == null) return defaultLocale;
+        if (loc.equals(defaultLocale) || byLocale.containsKey(loc)) return loc;
+        if (missing.contains(loc)) return defaultLocale;
+        Map<String, MessageTemplate> compiled = compileLocale(loc);
+        if (compiled.isEmpty()) {
+            missing.add(loc);
+            return defaultLocale;
+        }
+        byLocale.putIfAbsent(loc, compiled);
+        return loc;
+    }
+
+    private Map<String, MessageTemplate> compileLocale(String locale) {
+        Map<String, String> raw = new HashMap<>();
+        try (InputStream in = MessageCatalog.class.getResourceAsStream("/assets/" + Nightchat.MODID + "/lang/" + locale + ".json")) {
+            if (in != null) readInto(new InputStreamReader(in, StandardCharsets.UTF_8), raw);
+        } catch (Exception e) {
+            Nightchat.LOGGER.warn("Failed to read bundled lang {}: {}", locale, e.toString());
+        }
+        Path dir = configDir;
+        if (dir != null) {
+            Path override = dir.resolve(locale + ".json");
+            if (Files.exists(override)) {
+                try (Reader r = Files.newBufferedReader(override, StandardCharsets.UTF_8)) {
+                    readInto(r, raw);
+                } catch (Exception e) {
+                    Nightchat.LOGGER.warn("Failed to read lang override {}: {}", override, e.toString());
+                }
+            }
+        }
+
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        for (Map.Entry<String, String> e : raw.entrySet()) {
+            if (!e.getKey().startsWith(Nightchat.MODID + ".")) continue;
+            compiled.put(e.getKey(), MessageTemplate.compile(e.getValue(), MessageKey.byId(e.getKey())));
+        }
+        return Map.copyOf(compiled);
+    }
+
+    private static void readInto(Reader reader, Map<String, String> out) {
+        JsonElement root = JsonParser.parseReader(reader);
+        if (root == null || !root.isJsonObject()) return;
+        JsonObject obj = root.getAsJsonObject();
+        for (Map.Entry<String, JsonElement> e : obj.entrySet()) {
+            if (e.getValue() != null && e.getValue().isJsonPrimitive()) out.put(e.getKey(), e.getValue().getAsString());
+        }
+    }
+
+    // null se não parece um idioma ("en_us", "pt-BR" etc.)
+    private static String normalize(String locale) {
+        if (locale == null) return null;
+        String loc = locale.strip().toLowerCase(Locale.ROOT).replace('-', '_');
+        return LOCALE.matcher(loc).matches() ? loc : null;
+    }
+}
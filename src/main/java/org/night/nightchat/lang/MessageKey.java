@@ -0,0 +1,33 @@
+package org.night.nightchat.lang;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Chave de mensagem do catálogo com os nomes dos seus argumentos, na ordem em que são passados. */
+public final class MessageKey {
+    private static final Map<String, MessageKey> BY_ID = new ConcurrentHashMap<>();
+
+    public final String id;
+    final String[] args;
+
+    private MessageKey(String id, String[] args) {
+        this.id = id;
+        this.args = args;
+    }
+
+    public static MessageKey of(String id, String... args) {
+        MessageKey key = new MessageKey(id, args);
+        BY_ID.put(id, key);
+        return key;
+    }
+
+    static MessageKey byId(String id) {
+        return BY_ID.get(id);
+    }
+
+    // Posição do argumento {name}; -1 se a chave não declara esse nome
+    int indexOf(String name) {
+        for (int i = 0; i < args.length; i++) if (args[i].equals(name)) return i;
+        return -1;
+    }
+}
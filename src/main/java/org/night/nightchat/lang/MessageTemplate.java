@@ -0,0 +1,86 @@
+package org.night.nightchat.lang;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import org.night.nightchat.util.NumberUtil;
+import org.night.nightchat.util.TextUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uma mensagem de um idioma compilada uma vez: pedaços literais já convertidos em Component
+ * e slots de argumento com o estilo legado que vale naquela posição.
+ */
+final class MessageTemplate {
+    private final Component[] literals;   // slots.length + 1 pedaços (podem ser null = vazio)
+    private final int[] slots;            // índice do argumento em cada slot
+    private final Style[] slotStyles;
+    private final Component constant;     // mensagem sem argumentos: o mesmo Component sempre
+
+    private MessageTemplate(Component[] literals, int[] slots, Style[] slotStyles) {
+        this.literals = literals;
+        this.slots = slots;
+        this.slotStyles = slotStyles;
+        this.constant = slots.length == 0 ? literals[0] : null;
+    }
+
+    static MessageTemplate compile(String text, MessageKey key) {
+        List<Component> lits = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<Style> styles = new ArrayList<>();
+        TextUtil.StyleState state = new TextUtil.StyleState();
+        StringBuilder buf = new StringBuilder();
+
+        int i = 0, n = text.length();
+        while (i < n) {
+            char ch = text.charAt(i);
+            int close = ch == '{' ? text.indexOf('}', i + 1) : -1;
+            int arg = close > i ? argIndex(key, text.substring(i + 1, close)) : -1;
+            if (arg < 0) {
+                buf.append(ch);
+                i++;
+                continue;
+            }
+            lits.add(buf.length() == 0 ? null : TextUtil.parseLegacy(buf.toString(), state));
+            buf.setLength(0);
+            slots.add(arg);
+            styles.add(state.style);
+            i = close + 1;
+        }
+        lits.add(buf.length() == 0 ? (slots.isEmpty() ? Component.empty() : null) : TextUtil.parseLegacy(buf.toString(), state));
+
+        int[] slotArr = new int[slots.size()];
+        for (int k = 0; k < slotArr.length; k++) slotArr[k] = slots.get(k);
+        return new MessageTemplate(lits.toArray(new Component[0]), slotArr, styles.toArray(new Style[0]));
+    }
+
+    private static int argIndex(MessageKey key, String name) {
+        if (key == null || name.isEmpty()) return -1;
+        return key.indexOf(name);
+    }
+
+    Component render(Object[] args) {
+        if (constant != null) return constant;
+        MutableComponent out = Component.empty();
+        for (int k = 0; k < slots.length; k++) {
+            if (literals[k] != null) out.append(literals[k]);
+            int idx = slots[k];
+            Object v = args != null && idx < args.length ? args[idx] : null;
+            out.append(argument(v, slotStyles[k]));
+        }
+        Component tail = literals[slots.length];
+        if (tail != null) out.append(tail);
+        return out;
+    }
+
+    private static Component argument(Object v, Style style) {
+        if (v instanceof Component c) return Component.empty().setStyle(style).append(c);
+        String s;
+        if (v == null) s = "";
+        else if (v instanceof Double || v instanceof Float) s = NumberUtil.stripTrailingZeros(((Number) v).doubleValue());
+        else s = String.valueOf(v);
+        return Component.literal(s).setStyle(style);
+    }
+}
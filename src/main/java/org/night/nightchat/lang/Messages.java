@@ -0,0 +1,53 @@
+package org.night.nightchat.lang;
+
+/** Mensagens de sistema do NightChat. Textos em assets/nightchat/lang e config/nightchat/lang. */
+public final class Messages {
+    private Messages() {}
+
+    // Chat
+    public static final MessageKey NO_PERMISSION_CHANNEL = MessageKey.of("nightchat.chat.no_permission", "channel");
+    public static final MessageKey COOLDOWN = MessageKey.of("nightchat.chat.cooldown", "time", "channel");
+    public static final MessageKey NOBODY_NEARBY = MessageKey.of("nightchat.chat.nobody_nearby");
+    public static final MessageKey CHANNEL_NOT_FOUND = MessageKey.of("nightchat.chat.channel_not_found", "channel");
+    public static final MessageKey INSUFFICIENT_BALANCE = MessageKey.of("nightchat.chat.insufficient_balance");
+    public static final MessageKey CHARGE_FAILED = MessageKey.of("nightchat.chat.charge_failed");
+    public static final MessageKey MESSAGE_COST = MessageKey.of("nightchat.chat.message_cost", "cost");
+    public static final MessageKey CHAT_SKIPPED = MessageKey.of("nightchat.chat.skipped", "count", "channel");
+    public static final MessageKey BACKLOG_INFO = MessageKey.of("nightchat.backlog.info", "player", "kb", "queued", "skipped", "total");
+    public static final MessageKey ECONOMY_UNAVAILABLE = MessageKey.of("nightchat.chat.economy_unavailable", "channel");
+    public static final MessageKey INTEGRATIONS_BREAKER = MessageKey.of("nightchat.integrations.breaker", "name", "state", "failures", "skipped");
+    public static final MessageKey INTEGRATIONS_CALL = MessageKey.of("nightchat.integrations.call", "call", "count", "avg", "p50", "p99", "max", "timeouts", "errors");
+    public static final MessageKey CHARGE_BLOCKED = MessageKey.of("nightchat.chat.charge_blocked", "channel");
+    public static final MessageKey CHARGE_FAILED_LATE = MessageKey.of("nightchat.chat.charge_failed_late", "cost", "count", "currency", "seconds");
+    public static final MessageKey CHAT_SHED = MessageKey.of("nightchat.chat.shed", "channel");
+
+    // /tell
+    public static final MessageKey TELL_SELF = MessageKey.of("nightchat.tell.self");
+    public static final MessageKey TELL_TARGET_IGNORING = MessageKey.of("nightchat.tell.target_ignoring");
+    public static final MessageKey TELL_YOU_IGNORING = MessageKey.of("nightchat.tell.you_ignoring");
+
+    // /mute, /ignore, /muteall, /spy
+    public static final MessageKey MUTE_ON = MessageKey.of("nightchat.mute.on", "player");
+    public static final MessageKey MUTE_OFF = MessageKey.of("nightchat.mute.off", "player");
+    public static final MessageKey IGNORE_ON = MessageKey.of("nightchat.ignore.on", "player");
+    public static final MessageKey IGNORE_OFF = MessageKey.of("nightchat.ignore.off", "player");
+    public static final MessageKey MUTEALL_ON = MessageKey.of("nightchat.muteall.on", "channel");
+    public static final MessageKey MUTEALL_OFF = MessageKey.of("nightchat.muteall.off", "channel");
+    public static final MessageKey SPY_ON = MessageKey.of("nightchat.spy.on", "channel");
+    public static final MessageKey SPY_OFF = MessageKey.of("nightchat.spy.off", "channel");
+
+    // /nightchat
+    public static final MessageKey RELOAD_OK = MessageKey.of("nightchat.reload.ok");
+    public static final MessageKey RELOAD_CHANNELS = MessageKey.of("nightchat.reload.channels", "count");
+    public static final MessageKey RELOAD_ALIAS_NOTE = MessageKey.of("nightchat.reload.alias_note");
+    public static final MessageKey RELOAD_FAILED = MessageKey.of("nightchat.reload.failed", "error");
+    public static final MessageKey STATS_TEXT_CACHE = MessageKey.of("nightchat.stats.text_cache", "size", "hits", "misses", "ratio");
+    public static final MessageKey STATS_PIPELINE = MessageKey.of("nightchat.stats.pipeline", "depth", "backlog");
+    public static final MessageKey STATS_PIPELINE_STAGE = MessageKey.of("nightchat.stats.pipeline_stage", "stage", "count", "avg", "max");
+    public static final MessageKey STATS_DELIVERY = MessageKey.of("nightchat.stats.delivery", "messages", "packets", "bundles", "skipped");
+    public static final MessageKey STATS_CHANNEL_BYTES = MessageKey.of("nightchat.stats.channel_bytes", "channel", "messages", "deliveries", "kb", "avg", "trimmed");
+    public static final MessageKey STATS_CHARGES = MessageKey.of("nightchat.stats.charges", "reserved", "flushes", "settled", "skipped", "unknown", "failed", "queued", "interval", "threshold", "last");
+    public static final MessageKey STATS_CHARGES_PENDING = MessageKey.of("nightchat.stats.charges_pending", "currency", "amount", "count", "players");
+    public static final MessageKey STATS_GOVERNOR = MessageKey.of("nightchat.stats.governor", "admitted", "deferred", "shed", "waiting");
+    public static final MessageKey STATS_LOCAL_GRID = MessageKey.of("nightchat.stats.local_grid", "queries", "candidates", "average");
+}
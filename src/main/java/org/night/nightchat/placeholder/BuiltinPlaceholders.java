@@ -0,0 +1,41 @@
+package org.night.nightchat.placeholder;
+
+import org.night.nightchat.util.NumberUtil;
+
+/** Placeholders próprios do NightChat: %player%, %luckperms_*% (inclui %luckperms_meta_<chave>%) e %nighteconomy_<moeda>_*%. */
+public final class BuiltinPlaceholders {
+    private BuiltinPlaceholders() {}
+
+    public static void registerAll(PlaceholderRegistry registry) {
+        // %player% -> nome (estável); %player_click% fica literal (tratado por quem consome o texto)
+        registry.register("player", (ctx, params) ->
+                params.isEmpty() ? ctx.sender.getGameProfile().getName() : null,
+                String::isEmpty);
+
+        // Mudam só com recálculo do LuckPerms, que invalida o cache de tags do jogador
+        registry.register("luckperms", (ctx, params) -> switch (params) {
+            case "prefix" -> ctx.prefix();
+            case "suffix" -> ctx.suffix();
+            default -> params.startsWith("meta_") ? ctx.meta().meta(params.substring(5)) : null;
+        }, params -> params.equals("prefix") || params.equals("suffix") || params.startsWith("meta_"));
+
+        // %nighteconomy_<moeda>[_balance|_tycoon|_tag]% (não estável: tags com ele usam o TTL da economia)
+        registry.register("nighteconomy", (ctx, params) -> {
+            if (params.isEmpty()) return null;
+            int us = params.indexOf('_');
+            String cur = us < 0 ? params : params.substring(0, us);
+            String suff = us < 0 ? "" : params.substring(us + 1);
+
+            // TAG do Tycoon do REMETENTE (se não for tycoon, retorna vazio)
+            if ("tycoon".equals(suff) || "tag".equals(suff)) {
+                return ctx.tycoonTag(cur);
+            }
+            // Saldo do remetente (aceita _balance ou vazio); compartilha a consulta com {money}
+            if ("balance".equals(suff) || suff.isEmpty()) {
+                return NumberUtil.formatCompact(ctx.balance(cur));
+            }
+            // Qualquer outro sufixo desconhecido de nighteconomy não vaza literal
+            return "";
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package org.night.nightchat.placeholder;
+
+import java.util.Locale;
+
+/** Um %namespace_params% já separado no carregamento do template. */
+public final class Placeholder {
+    public final String namespace;
+    public final String params;
+    public final String key; // namespace_params em minúsculas (chave do memo por mensagem)
+    public final String raw; // texto original, devolvido quando ninguém resolve
+
+    Placeholder(String key, String raw) {
+        String k = key.toLowerCase(Locale.ROOT);
+        this.key = k;
+        int us = k.indexOf('_');
+        this.namespace = us < 0 ? k : k.substring(0, us);
+        this.params = us < 0 ? "" : k.substring(us + 1);
+        this.raw = raw;
+    }
+}
@@ -0,0 +1,135 @@
+package org.night.nightchat.placeholder;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.night.nightchat.chat.Channel;
+import org.night.nightchat.integration.LuckPermsHook;
+import org.night.nightchat.integration.NightEconomyHook;
+import org.night.nightchat.util.NumberUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Valores de uma única mensagem, calculados só no primeiro acesso e reaproveitados pelo resto
+ * do render (formato, tags e spy). Não é thread-safe: vive dentro de um único envio.
+ */
+public final class PlaceholderContext {
+    /** {tokens} resolvidos pelo contexto; um tag com um desses ids depende do remetente. */
+    public static final Set<String> TOKENS = Set.of("channel", "prefix", "suffix", "nick", "message", "money", "money_tycoon");
+
+    public final ServerPlayer sender;
+    public final Channel channel;
+    private String message = "";
+
+    private final LuckPermsHook luckPerms;
+    private final NightEconomyHook economy;
+
+    private LuckPermsHook.MetaSnapshot meta;
+    private final Map<String, Double> balances = new HashMap<>(2);
+    private final Map<String, String> tycoonTags = new HashMap<>(2);
+    private final Map<String, String> tokens = new HashMap<>(8);
+    private final Map<String, String> resolved = new HashMap<>(8);
+
+    public PlaceholderContext(ServerPlayer sender, Channel channel, LuckPermsHook luckPerms, NightEconomyHook economy) {
+        this.sender = sender;
+        this.channel = channel;
+        this.luckPerms = luckPerms;
+        this.economy = economy;
+    }
+
+    // Texto final da mensagem ({message}); definido depois de filtros/cobrança, antes do render
+    public void setMessage(String message) {
+        this.message = message == null ? "" : message;
+        tokens.remove("message");
+    }
+
+    public String message() {
+        return message;
+    }
+
+    /** Snapshot do LuckPerms do remetente (prefixo, sufixo e meta), o mesmo durante toda a mensagem. */
+    public LuckPermsHook.MetaSnapshot meta() {
+        if (meta == null) meta = luckPerms.meta(sender);
+        return meta;
+    }
+
+    public String prefix() {
+        return meta().prefix;
+    }
+
+    public String suffix() {
+        return meta().suffix;
+    }
+
+    /** Saldo do remetente; no máximo uma chamada ao NightEconomy por moeda nesta mensagem. */
+    public double balance(String currencyId) {
+        Double cached = balances.get(currencyId);
+        if (cached == null) {
+            cached = economy.isReady() ? economy.getBalance(sender, currencyId) : 0.0D;
+            balances.put(currencyId, cached);
+        }
+        return cached;
+    }
+
+    // Saldo já conhecido por quem chamou (ex.: saldo local da reserva): o render não consulta o NightEconomy
+    public void seedBalance(String currencyId, double balance) {
+        balances.put(currencyId, balance);
+    }
+
+    // Após uma cobrança bem-sucedida: mantém o saldo exibido coerente sem consultar de novo
+    public void adjustBalance(String currencyId, double delta) {
+        Double cached = balances.get(currencyId);
+        if (cached != null) balances.put(currencyId, cached + delta);
+    }
+
+    public String tycoonTag(String currencyId) {
+        String cached = tycoonTags.get(currencyId);
+        if (cached == null) {
+            String t = economy.isReady() ? economy.getTycoonTagIfSelf(sender, currencyId) : "";
+            cached = t == null ? "" : t;
+            tycoonTags.put(currencyId, cached);
+        }
+        return cached;
+    }
+
+    /** Valor de um {token} do formato (channel, prefix, suffix, nick, message, money, money_tycoon). */
+    public String token(String key) {
+        String v = tokens.get(key);
+        if (v == null) {
+            v = computeToken(key);
+            tokens.put(key, v);
+        }
+        return v;
+    }
+
+    private String computeToken(String key) {
+        switch (key) {
+            case "channel": return channel.id.substring(0, 1).toUpperCase() + channel.id.substring(1);
+            case "prefix": return prefix().isBlank() ? "" : prefix();
+            case "suffix": return suffix().isBlank() ? "" : suffix();
+            case "nick": return sender.getGameProfile().getName();
+            case "message": return message;
+            case "money":
+                return economyEnabled() ? NumberUtil.formatCompact(balance(channel.currencyId)) : "";
+            case "money_tycoon":
+                return economyEnabled() ? tycoonTag(channel.currencyId) : "";
+            default: return "";
+        }
+    }
+
+    private boolean economyEnabled() {
+        return channel.currencyEnabled && economy.isReady();
+    }
+
+    // Memo dos %namespace_params% já resolvidos nesta mensagem
+    String memo(String key, Supplier<String> compute) {
+        String v = resolved.get(key);
+        if (v == null) {
+            v = compute.get();
+            resolved.put(key, v);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,83 @@
+package org.night.nightchat.placeholder;
+
+import org.night.nightchat.Nightchat;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Registry of {@link PlaceholderResolver}s keyed by namespace. Resolving a placeholder is a
+ * single hash lookup regardless of how many namespaces are registered.
+ * Other mods register through {@link Nightchat#PLACEHOLDERS}.
+ * Tag renders are cached per sender only when every placeholder in the tag is declared stable.
+ */
+public class PlaceholderRegistry {
+    private final Map<String, PlaceholderResolver> byNamespace = new ConcurrentHashMap<>();
+    private final Map<String, Predicate<String>> stableParams = new ConcurrentHashMap<>();
+    private final AtomicInteger version = new AtomicInteger();
+
+    /** Registers a resolver whose values may change at any time (never cached across messages). */
+    public void register(String namespace, PlaceholderResolver resolver) {
+        register(namespace, resolver, params -> false);
+    }
+
+    /**
+     * Registers a resolver and declares which of its params are stable: their value depends only on
+     * the sender and changes only on a LuckPerms recalculation, a reload or a relog.
+     */
+    public void register(String namespace, PlaceholderResolver resolver, Predicate<String> stable) {
+        String ns = Objects.requireNonNull(namespace).toLowerCase(Locale.ROOT);
+        if (ns.isEmpty() || ns.indexOf('_') != -1) {
+            throw new IllegalArgumentException("Invalid placeholder namespace: " + namespace);
+        }
+        stableParams.put(ns, Objects.requireNonNull(stable));
+        PlaceholderResolver previous = byNamespace.put(ns, Objects.requireNonNull(resolver));
+        version.incrementAndGet();
+        if (previous != null) {
+            Nightchat.LOGGER.warn("Placeholder namespace '{}' was re-registered.", ns);
+        }
+    }
+
+    public void unregister(String namespace) {
+        String ns = namespace.toLowerCase(Locale.ROOT);
+        byNamespace.remove(ns);
+        stableParams.remove(ns);
+        version.incrementAndGet();
+    }
+
+    /** Unknown namespaces are not stable: a mod may register them later. */
+    public boolean isStable(Placeholder p) {
+        Predicate<String> stable = stableParams.get(p.namespace);
+        return stable != null && byNamespace.containsKey(p.namespace) && stable.test(p.params);
+    }
+
+    /** Bumped on every register/unregister, so cached decisions based on {@link #isStable} can be redone. */
+    public int version() {
+        return version.get();
+    }
+
+    public String resolve(Placeholder p, PlaceholderContext ctx) {
+        PlaceholderResolver r = byNamespace.get(p.namespace);
+        if (r == null) return p.raw; // placeholder desconhecido: mantemos como veio
+        return ctx.memo(p.key, () -> {
+            try {
+                String v = r.resolve(ctx, p.params);
+                return v == null ? p.raw : v;
+            } catch (Throwable t) {
+                Nightchat.LOGGER.warn("Placeholder resolver '{}' failed: {}", p.namespace, t.toString());
+                return "";
+            }
+        });
+    }
+
+    // Para textos que só existem em tempo de execução (valores de {token}, prefixos...)
+    public String expand(String text, PlaceholderContext ctx) {
+        if (text == null || text.isEmpty()) return "";
+        if (text.indexOf('%') == -1) return text;
+        return PlaceholderText.parse(text).resolve(this, ctx);
+    }
+}
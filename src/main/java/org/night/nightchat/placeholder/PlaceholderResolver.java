@@ -0,0 +1,18 @@
+package org.night.nightchat.placeholder;
+
+/**
+ * Resolves the placeholders of one namespace, e.g. {@code %luckperms_prefix%} is handed to the
+ * resolver registered under {@code luckperms} with {@code params = "prefix"}.
+ * Register through {@link PlaceholderRegistry#register(String, PlaceholderResolver)}.
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+    /**
+     * Called at most once per distinct placeholder per message; the result is memoized in the context.
+     *
+     * @param ctx    the message being rendered (sender, channel and lazily cached hook values)
+     * @param params everything after {@code namespace_}, lower-cased ({@code ""} when absent)
+     * @return the replacement text, or {@code null} to leave the placeholder untouched
+     */
+    String resolve(PlaceholderContext ctx, String params);
+}
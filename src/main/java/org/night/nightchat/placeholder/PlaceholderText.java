@@ -0,0 +1,68 @@
+package org.night.nightchat.placeholder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Texto com %...% pré-processado: literais intercalados com placeholders já separados
+ * em namespace/params. A resolução por mensagem é só concatenação + lookups no registry.
+ */
+public final class PlaceholderText {
+    private static final Pattern PERCENT_TOKEN = Pattern.compile("%([a-z0-9_]+)%", Pattern.CASE_INSENSITIVE);
+
+    public final String raw;
+    private final String[] literals;          // placeholders.length + 1 pedaços
+    private final Placeholder[] placeholders;
+
+    private PlaceholderText(String raw, String[] literals, Placeholder[] placeholders) {
+        this.raw = raw;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    public static PlaceholderText parse(String raw) {
+        String text = raw == null ? "" : raw;
+        if (text.indexOf('%') == -1) return new PlaceholderText(text, new String[]{text}, new Placeholder[0]);
+
+        List<String> lits = new ArrayList<>();
+        List<Placeholder> phs = new ArrayList<>();
+        Matcher m = PERCENT_TOKEN.matcher(text);
+        int last = 0;
+        while (m.find()) {
+            lits.add(text.substring(last, m.start()));
+            phs.add(new Placeholder(m.group(1), m.group(0)));
+            last = m.end();
+        }
+        lits.add(text.substring(last));
+        return new PlaceholderText(text, lits.toArray(new String[0]), phs.toArray(new Placeholder[0]));
+    }
+
+    /** Sem placeholders: o resultado é sempre {@link #raw}. */
+    public boolean isStatic() {
+        return placeholders.length == 0;
+    }
+
+    public boolean usesNamespace(String namespace) {
+        for (Placeholder p : placeholders) if (p.namespace.equals(namespace)) return true;
+        return false;
+    }
+
+    public boolean allMatch(Predicate<Placeholder> test) {
+        for (Placeholder p : placeholders) if (!test.test(p)) return false;
+        return true;
+    }
+
+    public String resolve(PlaceholderRegistry registry, PlaceholderContext ctx) {
+        if (placeholders.length == 0) return raw;
+        StringBuilder sb = new StringBuilder(raw.length() + 16);
+        for (int i = 0; i < placeholders.length; i++) {
+            sb.append(literals[i]);
+            sb.append(registry.resolve(placeholders[i], ctx));
+        }
+        sb.append(literals[placeholders.length]);
+        return sb.toString();
+    }
+}
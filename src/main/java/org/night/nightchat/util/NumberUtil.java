@@ -3,9 +3,11 @@ package org.night.nightchat.util;
 import java.text.DecimalFormat;
 
 public class NumberUtil {
-    private static final DecimalFormat ONE_DEC = new DecimalFormat("#.#");
+    // DecimalFormat não é thread-safe e isto roda nos workers do pipeline
+    private static final ThreadLocal<DecimalFormat> ONE_DEC = ThreadLocal.withInitial(() -> new DecimalFormat("#.#"));
 
     public static String formatCompact(double value) {
+        if (Double.isNaN(value)) return "?"; // saldo desconhecido (economia indisponível)
         double abs = Math.abs(value);
         String suffix;
         double num;
@@ -13,11 +15,11 @@ public class NumberUtil {
         else if (abs >= 1_000_000) { num = value / 1_000_000.0; suffix = "M"; }
         else if (abs >= 1_000) { num = value / 1_000.0; suffix = "k"; }
         else { return stripTrailingZeros(value); }
-        return ONE_DEC.format(num) + suffix;
+        return ONE_DEC.get().format(num) + suffix;
     }
 
     public static String stripTrailingZeros(double value) {
         if (value == (long) value) return String.format("%d", (long) value);
-        return ONE_DEC.format(value);
+        return ONE_DEC.get().format(value);
     }
 }
\ No newline at end of file
@@ -2,14 +2,153 @@ package org.night.nightchat.util;
 
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.TextColor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TextUtil {
-    // Converte códigos de cor estilo &a para Component
+    // Cache LRU de componentes já convertidos: prefixos, sufixos, logos e mensagens de sistema
+    // vêm de um conjunto pequeno de strings, então o mesmo Component é reaproveitado.
+    private static int cacheCapacity = 1024;
+    private static final Map<String, Component> CACHE = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+            return size() > cacheCapacity;
+        }
+    };
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    // Converte códigos de cor estilo &a para Component (cacheado; não modifique o retorno, use copy())
     public static Component legacyToComponent(String legacy) {
-        // Implementação simples: substitui & por § e deixa o Minecraft processar, ou
-        // constrói manualmente. Aqui, convertemos &a etc. em formatação básica.
-        String withSection = legacy.replace('&', '§');
-        return Component.literal(withSection).withStyle(Style.EMPTY);
+        if (legacy == null || legacy.isEmpty()) return Component.empty();
+        Component cached;
+        synchronized (CACHE) {
+            cached = CACHE.get(legacy);
+        }
+        if (cached != null) {
+            HITS.incrementAndGet();
+            return cached;
+        }
+        MISSES.incrementAndGet();
+        Component parsed = parseLegacy(legacy);
+        synchronized (CACHE) {
+            CACHE.put(legacy, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Converte &a, &l, &r, &#RRGGBB e &x&R&R&G&G&B&B (também com §) numa lista plana de
+     * literais estilizados. Não passa pelo cache: use para texto único, como o corpo da mensagem.
+     */
+    public static MutableComponent parseLegacy(String legacy) {
+        return parseLegacy(legacy, new StyleState());
+    }
+
+    // Estilo legado ativo entre pedaços de um mesmo texto (ex.: "&e" antes de {message} vale para o corpo)
+    public static final class StyleState {
+        public Style style;
+
+        public StyleState() { this(Style.EMPTY); }
+        public StyleState(Style style) { this.style = style; }
+    }
+
+    /** Igual a {@link #parseLegacy(String)}, começando em state.style e deixando nele o estilo ativo no fim. */
+    public static MutableComponent parseLegacy(String legacy, StyleState state) {
+        MutableComponent root = Component.empty();
+        if (legacy == null || legacy.isEmpty()) return root;
+
+        Style style = state.style;
+        StringBuilder buf = new StringBuilder();
+        int n = legacy.length();
+        int i = 0;
+        while (i < n) {
+            char ch = legacy.charAt(i);
+            if ((ch == '&' || ch == '§') && i + 1 < n) {
+                char code = Character.toLowerCase(legacy.charAt(i + 1));
+
+                // &#RRGGBB
+                if (code == '#' && i + 8 <= n) {
+                    int rgb = parseHex(legacy, i + 2, 6, 1);
+                    if (rgb >= 0) {
+                        flush(root, buf, style);
+                        style = Style.EMPTY.withColor(TextColor.fromRgb(rgb));
+                        i += 8;
+                        continue;
+                    }
+                }
+                // &x&R&R&G&G&B&B (formato Bukkit)
+                if (code == 'x' && i + 14 <= n) {
+                    int rgb = parseHex(legacy, i + 3, 6, 2);
+                    if (rgb >= 0) {
+                        flush(root, buf, style);
+                        style = Style.EMPTY.withColor(TextColor.fromRgb(rgb));
+                        i += 14;
+                        continue;
+                    }
+                }
+
+                ChatFormatting fmt = ChatFormatting.getByCode(code);
+                if (fmt != null) {
+                    flush(root, buf, style);
+                    if (fmt == ChatFormatting.RESET) style = Style.EMPTY;
+                    else if (fmt.isColor()) style = Style.EMPTY.withColor(fmt); // cor zera a formatação, como no legado
+                    else style = style.applyFormat(fmt);
+                    i += 2;
+                    continue;
+                }
+            }
+            buf.append(ch);
+            i++;
+        }
+        flush(root, buf, style);
+        state.style = style;
+        return root;
+    }
+
+    // Lê 'digits' dígitos hex a partir de 'from', pulando 'stride' chars (2 para &x&R&R...). -1 se inválido.
+    private static int parseHex(String s, int from, int digits, int stride) {
+        int v = 0;
+        for (int k = 0; k < digits; k++) {
+            int pos = from + k * stride;
+            if (stride == 2 && s.charAt(pos - 1) != '&' && s.charAt(pos - 1) != '§') return -1;
+            int d = Character.digit(s.charAt(pos), 16);
+            if (d < 0) return -1;
+            v = (v << 4) | d;
+        }
+        return v;
+    }
+
+    private static void flush(MutableComponent root, StringBuilder buf, Style style) {
+        if (buf.length() == 0) return;
+        root.append(Component.literal(buf.toString()).setStyle(style));
+        buf.setLength(0);
+    }
+
+    public static void setCacheCapacity(int capacity) {
+        synchronized (CACHE) {
+            cacheCapacity = Math.max(16, capacity);
+            if (CACHE.size() > cacheCapacity) CACHE.clear();
+        }
+    }
+
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    public static long cacheHits() { return HITS.get(); }
+    public static long cacheMisses() { return MISSES.get(); }
+
+    public static int cacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.night.nightchat.integration.NightEconomyHook;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChargeReservationsTest {
+
+    private final Channel paid = TestChannels.paid("paid", "coins", 5);
+    private NightEconomyHook economy;
+    private ServerPlayer player;
+    private ChargeReservations charges;
+
+    @BeforeEach
+    void setUp() {
+        economy = mock(NightEconomyHook.class);
+        player = mock(ServerPlayer.class);
+        when(player.getUUID()).thenReturn(UUID.randomUUID());
+        when(economy.getBalance(player, "coins")).thenReturn(100.0);
+
+        charges = new ChargeReservations(economy);
+        charges.configure(30, 30, 0, 0);
+        charges.start();
+        charges.prefetch(player, List.of(paid));
+        awaitSettled();
+    }
+
+    @AfterEach
+    void tearDown() {
+        charges.stop();
+    }
+
+    @Test
+    void settledDebitLowersTheLocalBalance() {
+        when(economy.debit(eq(player), eq("coins"), anyDouble(), anyString())).thenReturn(NightEconomyHook.Debit.OK);
+        charges.reserve(player, paid);
+        charges.reserve(player, paid);
+        assertEquals(90.0, charges.available(player.getUUID(), "coins"));
+
+        charges.flushAll();
+        awaitSettled();
+        verify(economy).debit(eq(player), eq("coins"), eq(10.0), anyString());
+        assertEquals(2, charges.settled());
+        assertEquals(90.0, charges.available(player.getUUID(), "coins"));
+    }
+
+    @Test
+    void unknownDebitIsNeverResentAndIsReconciledFromTheBalance() {
+        when(economy.debit(eq(player), eq("coins"), anyDouble(), anyString())).thenReturn(NightEconomyHook.Debit.UNKNOWN);
+        charges.reserve(player, paid);
+        // A chamada abandonada caiu: o saldo relido já mostra o débito
+        when(economy.getBalance(player, "coins")).thenReturn(95.0);
+        charges.flushAll();
+        awaitSettled();
+
+        charges.flushAll();
+        charges.flushDue();
+        awaitSettled();
+        verify(economy, times(1)).debit(eq(player), eq("coins"), anyDouble(), anyString());
+        assertEquals(1, charges.unknown());
+        assertEquals(0, charges.failed());
+        assertEquals(95.0, charges.available(player.getUUID(), "coins"));
+    }
+
+    @Test
+    void refusedDebitBlocksThePlayer() {
+        when(economy.debit(eq(player), eq("coins"), anyDouble(), anyString())).thenReturn(NightEconomyHook.Debit.REFUSED);
+        charges.reserve(player, paid);
+        charges.flushAll();
+        awaitSettled();
+
+        assertEquals(1, charges.failed());
+        assertEquals(ChargeReservations.Outcome.BLOCKED, charges.reserve(player, paid));
+        int[] notices = {0};
+        charges.drainFailures(f -> notices[0]++);
+        assertEquals(1, notices[0]);
+    }
+
+    private void awaitSettled() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (charges.pendingSettlements() == 0) return;
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        fail("timed out waiting for the settler");
+    }
+}
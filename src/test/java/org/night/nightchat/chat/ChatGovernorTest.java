@@ -0,0 +1,161 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatGovernorTest {
+
+    private final Channel staff = TestChannels.of("staff", ChannelType.STAFF, "");
+    private final Channel global = TestChannels.of("global", ChannelType.GLOBAL, "");
+    private final Channel local = TestChannels.of("local", ChannelType.LOCAL, "");
+
+    private final List<String> ran = new ArrayList<>();
+    private final List<ServerPlayer> warned = new ArrayList<>();
+    private final ChatGovernor governor = new ChatGovernor((p, c) -> warned.add(p));
+
+    private ServerPlayer alice;
+    private ServerPlayer bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = player();
+        bob = player();
+        // Orçamento de tempo folgado: o limite que vale nos testes é o de mensagens por tick
+        governor.configure(true, 1_000, 2, 3, 4);
+        governor.onTick(0);
+    }
+
+    @Test
+    void runsImmediatelyWithinBudget() {
+        assertTrue(governor.offer(alice, global, work("a")));
+        assertEquals(List.of("a"), ran);
+        assertEquals(1, governor.admitted());
+        assertEquals(0, governor.waiting());
+    }
+
+    @Test
+    void defersPastTheBudgetAndRunsNextTick() {
+        offer(alice, global, "a");
+        offer(alice, global, "b");
+        assertTrue(governor.offer(alice, global, work("c")));
+        assertEquals(List.of("a", "b"), ran);
+        assertEquals(1, governor.waiting());
+        assertEquals(1, governor.deferred());
+
+        governor.onTick(1);
+        assertEquals(List.of("a", "b", "c"), ran);
+        assertEquals(0, governor.waiting());
+    }
+
+    @Test
+    void staffIsServedBeforeGlobalAndLocal() {
+        offer(alice, global, "fill1");
+        offer(alice, global, "fill2");
+        offer(alice, local, "local");
+        offer(alice, global, "global");
+        offer(bob, staff, "staff");
+
+        governor.onTick(1);
+        assertEquals(List.of("fill1", "fill2", "staff", "global"), ran);
+        governor.onTick(2);
+        assertEquals("local", ran.get(ran.size() - 1));
+    }
+
+    @Test
+    void runsInlineAgainOnceTheQueueIsEmpty() {
+        offer(alice, global, "fill1");
+        offer(alice, global, "fill2");
+        offer(bob, global, "queued");
+        governor.onTick(1);
+        // Há orçamento sobrando neste tick, mas nada na fila: LOCAL roda direto
+        offer(alice, local, "local");
+        assertEquals(List.of("fill1", "fill2", "queued", "local"), ran);
+    }
+
+    @Test
+    void fullQueueShedsEveryPriorityIncludingStaff() {
+        offer(alice, global, "fill1");
+        offer(alice, global, "fill2");
+        for (int i = 0; i < 4; i++) offer(alice, staff, "s" + i);
+
+        assertFalse(governor.offer(bob, staff, work("overflow")));
+        assertEquals(1, governor.shed());
+        assertEquals(List.of(bob), warned);
+        assertEquals(4, governor.waiting());
+    }
+
+    @Test
+    void severalShedsInOneTickWarnTheSenderOnce() {
+        offer(alice, global, "fill1");
+        offer(alice, global, "fill2");
+        for (int i = 0; i < 4; i++) offer(alice, global, "g" + i);
+        governor.offer(bob, global, work("x"));
+        governor.offer(bob, global, work("y"));
+        assertEquals(2, governor.shed());
+        assertEquals(List.of(bob), warned);
+    }
+
+    @Test
+    void expiredGlobalMessagesAreShedButStaffIsKept() {
+        governor.configure(true, 1_000, 1, 3, 100);
+        governor.onTick(0);
+        offer(alice, global, "fill");
+        offer(alice, staff, "staff1");
+        offer(alice, staff, "staff2");
+        offer(bob, global, "old");
+
+        governor.onTick(10); // muito além de maxDeferTicks
+        assertEquals(List.of("fill", "staff1"), ran);
+        assertEquals(List.of(bob), warned);
+        assertEquals(1, governor.waiting());
+
+        governor.onTick(11);
+        assertEquals(List.of("fill", "staff1", "staff2"), ran);
+    }
+
+    @Test
+    void forgetDropsWorkLeftByALoggedOutSender() {
+        offer(alice, global, "fill1");
+        offer(alice, global, "fill2");
+        offer(bob, global, "bob");
+        offer(alice, local, "alice");
+
+        governor.forget(bob.getUUID());
+        governor.onTick(1);
+        assertEquals(List.of("fill1", "fill2", "alice"), ran);
+    }
+
+    @Test
+    void disabledRunsEverythingInline() {
+        governor.configure(false, 1_000, 1, 3, 1);
+        for (int i = 0; i < 5; i++) offer(alice, local, "m" + i);
+        assertEquals(5, ran.size());
+        assertEquals(0, governor.waiting());
+    }
+
+    private void offer(ServerPlayer sender, Channel channel, String label) {
+        governor.offer(sender, channel, work(label));
+    }
+
+    private BooleanSupplier work(String label) {
+        return () -> ran.add(label);
+    }
+
+    private static ServerPlayer player() {
+        ServerPlayer p = mock(ServerPlayer.class);
+        when(p.getUUID()).thenReturn(UUID.randomUUID());
+        return p;
+    }
+}
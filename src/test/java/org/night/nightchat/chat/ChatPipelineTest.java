@@ -0,0 +1,176 @@
+package org.night.nightchat.chat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ChatPipelineTest {
+
+    private final ChatPipeline pipeline = new ChatPipeline();
+
+    @AfterEach
+    void stop() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void keepsSubmissionOrderPerSender() {
+        pipeline.start(4, 64, true);
+        UUID sender = UUID.randomUUID();
+        List<Integer> delivered = new ArrayList<>(); // só a thread do teste (a "do servidor") mexe
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            pipeline.submit(sender, "global", 0L, out -> {
+                if (n % 7 == 0) sleep(2);
+                out.add(() -> delivered.add(n));
+            });
+        }
+        drainUntil(() -> delivered.size() == 50);
+        for (int i = 0; i < 50; i++) assertEquals(i, delivered.get(i));
+        assertEquals(0, pipeline.queueDepth());
+    }
+
+    @Test
+    void slowSenderHoldsBackLaterResultsInTheSameChannel() {
+        pipeline.start(2, 64, true);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = new ArrayList<>();
+        pipeline.submit(UUID.randomUUID(), "global", 0L, out -> {
+            await(release);
+            out.add(() -> delivered.add("question"));
+        });
+        CountDownLatch answered = new CountDownLatch(1);
+        pipeline.submit(UUID.randomUUID(), "global", 0L, out -> {
+            out.add(() -> delivered.add("answer"));
+            answered.countDown();
+        });
+
+        await(answered);
+        sleep(20);
+        pipeline.drain();
+        assertEquals(List.of(), delivered);
+
+        release.countDown();
+        drainUntil(() -> delivered.size() == 2);
+        assertEquals(List.of("question", "answer"), delivered);
+    }
+
+    @Test
+    void slowChannelDoesNotHoldBackOtherChannels() {
+        pipeline.start(2, 64, true);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = new ArrayList<>();
+        pipeline.submit(UUID.randomUUID(), "global", 0L, out -> {
+            await(release);
+            out.add(() -> delivered.add("global"));
+        });
+        pipeline.submit(UUID.randomUUID(), "local", 0L, out -> out.add(() -> delivered.add("local")));
+
+        drainUntil(() -> delivered.contains("local"));
+        assertEquals(List.of("local"), delivered);
+
+        release.countDown();
+        drainUntil(() -> delivered.size() == 2);
+        assertEquals(List.of("local", "global"), delivered);
+        assertEquals(0, pipeline.queueDepth());
+    }
+
+    @Test
+    void fullPoolDefersInsteadOfRunningOnCaller() {
+        pipeline.start(1, 16, true);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        Set<Thread> ranOn = ConcurrentHashMap.newKeySet();
+        List<UUID> delivered = new ArrayList<>();
+
+        // 1 worker ocupado + 16 na fila: os demais remetentes são rejeitados pelo pool
+        int senders = 30;
+        for (int i = 0; i < senders; i++) {
+            UUID id = UUID.randomUUID();
+            pipeline.submit(id, "global", 0L, out -> {
+                ranOn.add(Thread.currentThread());
+                await(release);
+                out.add(() -> delivered.add(id));
+            });
+        }
+        assertEquals(senders - 1, pipeline.workerBacklog());
+
+        release.countDown();
+        drainUntil(() -> delivered.size() == senders);
+        assertFalse(ranOn.contains(caller));
+    }
+
+    @Test
+    void restartAfterShutdownWithJobStillRunning() throws InterruptedException {
+        pipeline.start(1, 16, true);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch oldDone = new CountDownLatch(1);
+        List<String> delivered = new ArrayList<>();
+        pipeline.submit(UUID.randomUUID(), "global", 0L, out -> {
+            await(release);
+            out.add(() -> delivered.add("old"));
+            oldDone.countDown();
+        });
+
+        pipeline.shutdown(); // espera 2s e desiste do job preso
+        assertEquals(0, pipeline.queueDepth());
+
+        pipeline.start(1, 16, true);
+        release.countDown();
+        assertTrue(oldDone.await(5, TimeUnit.SECONDS));
+        sleep(50);
+
+        pipeline.submit(UUID.randomUUID(), "global", 0L, out -> out.add(() -> delivered.add("new")));
+        drainUntil(() -> delivered.contains("new"));
+        assertEquals(List.of("new"), delivered);
+        assertEquals(0, pipeline.queueDepth());
+    }
+
+    @Test
+    void synchronousModeDeliversImmediately() {
+        pipeline.start(1, 16, false);
+        List<String> delivered = new ArrayList<>();
+        pipeline.submit(UUID.randomUUID(), "global", 0L, out -> out.add(() -> delivered.add("now")));
+        assertEquals(List.of("now"), delivered);
+    }
+
+    // Drena como o tick do servidor até a condição valer
+    private void drainUntil(BooleanSupplier done) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            pipeline.drain();
+            if (done.getAsBoolean()) return;
+            sleep(1);
+        }
+        fail("timed out waiting for the pipeline");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
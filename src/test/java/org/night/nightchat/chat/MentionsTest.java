@@ -0,0 +1,106 @@
+package org.night.nightchat.chat;
+
+import com.mojang.authlib.GameProfile;
+import net.minecraft.server.level.ServerPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MentionsTest {
+
+    private final Map<String, ServerPlayer> online = new HashMap<>();
+    private final Function<String, ServerPlayer> lookup = online::get;
+
+    private final ServerPlayer steve = player("Steve");
+    private final ServerPlayer alex = player("Alex");
+    private final ServerPlayer bob = player("Bob");
+
+    @Test
+    void textWithoutAtIsReturnedAsIs() {
+        String msg = "hello there";
+        Mentions m = Mentions.scan(msg, lookup, 5, true);
+        assertTrue(m.players.isEmpty());
+        assertSame(msg, m.text);
+    }
+
+    @Test
+    void resolvesAndHighlightsWithTheRealName() {
+        Mentions m = Mentions.scan("hi @steve and @ALEX!", lookup, 5, true);
+        assertEquals(List.of("steve", "alex"), List.copyOf(m.players.keySet()));
+        assertSame(steve, m.players.get("steve"));
+        assertEquals("hi &6@Steve&r and &6@Alex&r!", m.text);
+    }
+
+    @Test
+    void withoutHighlightKeepsTheText() {
+        String msg = "hi @steve";
+        Mentions m = Mentions.scan(msg, lookup, 5, false);
+        assertSame(steve, m.players.get("steve"));
+        assertSame(msg, m.text);
+    }
+
+    @Test
+    void requiresAWordBoundaryBeforeTheAt() {
+        Mentions m = Mentions.scan("mail me at me@steve.com", lookup, 5, true);
+        assertTrue(m.players.isEmpty());
+        assertEquals("mail me at me@steve.com", m.text);
+    }
+
+    @Test
+    void ignoresNamesShorterThanThree() {
+        online.put("al", player("Al"));
+        Mentions m = Mentions.scan("@al @bob", lookup, 5, true);
+        assertEquals(List.of("bob"), List.copyOf(m.players.keySet()));
+        assertEquals("@al &6@Bob&r", m.text);
+    }
+
+    @Test
+    void unknownNamesAreLeftUntouched() {
+        Mentions m = Mentions.scan("@nobody @steve", lookup, 5, true);
+        assertEquals("@nobody &6@Steve&r", m.text);
+    }
+
+    @Test
+    void stopsResolvingAfterTheCapButKeepsHighlightingKnownOnes() {
+        Mentions m = Mentions.scan("@steve @alex @bob @steve", lookup, 2, true);
+        assertEquals(List.of("steve", "alex"), List.copyOf(m.players.keySet()));
+        assertEquals("&6@Steve&r &6@Alex&r @bob &6@Steve&r", m.text);
+    }
+
+    @Test
+    void zeroCapResolvesNothing() {
+        Mentions m = Mentions.scan("@steve", lookup, 0, true);
+        assertTrue(m.players.isEmpty());
+        assertEquals("@steve", m.text);
+    }
+
+    @Test
+    void nameStopsAtSixteenCharacters() {
+        online.put("abcdefghijklmnop", player("abcdefghijklmnop"));
+        Mentions m = Mentions.scan("@abcdefghijklmnopq", lookup, 5, true);
+        assertEquals("&6@abcdefghijklmnop&rq", m.text);
+    }
+
+    @Test
+    void highlightOnlyMarksTheViewer() {
+        assertEquals("&6@Steve&r and @alex", Mentions.highlightOnly("@STEVE and @alex", steve));
+    }
+
+    private ServerPlayer player(String name) {
+        ServerPlayer p = mock(ServerPlayer.class);
+        when(p.getGameProfile()).thenReturn(new GameProfile(UUID.randomUUID(), name));
+        online.put(name.toLowerCase(Locale.ROOT), p);
+        return p;
+    }
+}
@@ -0,0 +1,144 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.night.nightchat.integration.LuckPermsHook;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionBitsTest {
+
+    private LuckPermsHook luckPerms;
+    private PermissionBits bits;
+    private ServerPlayer player;
+    private Set<String> granted;
+
+    @BeforeEach
+    void setUp() {
+        luckPerms = mock(LuckPermsHook.class);
+        player = mock(ServerPlayer.class);
+        when(player.getUUID()).thenReturn(UUID.randomUUID());
+        granted = new HashSet<>(Set.of("nightchat.channel.vip"));
+
+        when(luckPerms.isHooked()).thenReturn(true);
+        when(luckPerms.hasPermission(eq(player), anyString()))
+                .thenAnswer(inv -> granted.contains(inv.<String>getArgument(1)));
+        when(luckPerms.hasPermissions(eq(player), any(String[].class))).thenAnswer(inv -> {
+            String[] nodes = inv.getArgument(1);
+            boolean[] out = new boolean[nodes.length];
+            for (int i = 0; i < nodes.length; i++) out[i] = granted.contains(nodes[i]);
+            return out;
+        });
+        bits = new PermissionBits(luckPerms);
+    }
+
+    @Test
+    void unindexedNodeFallsBackToTheLiveCheck() {
+        assertTrue(bits.has(player, -1, "nightchat.channel.vip"));
+        assertFalse(bits.has(player, -1, "nightchat.channel.staff"));
+        assertTrue(bits.has(player, -1, ""));
+        assertTrue(bits.has(player, -1, null));
+    }
+
+    @Test
+    void fixedBitOutOfRangeDenies() {
+        assertFalse(bits.has(player, -1));
+    }
+
+    @Test
+    void indexedNodeIsAnsweredFromTheBitSetAfterRefresh() {
+        Channel vip = channel("vip", "nightchat.channel.vip");
+        bits.index(List.of(vip));
+        assertTrue(vip.permissionBit >= 0);
+
+        bits.refresh(player);
+        clearInvocations(luckPerms);
+
+        assertTrue(bits.has(player, vip.permissionBit, vip.permission));
+        assertFalse(bits.has(player, bits.seeStaffBit));
+        verify(luckPerms, never()).hasPermission(any(), anyString());
+    }
+
+    @Test
+    void nodeAddedAfterRefreshIsCheckedLive() {
+        bits.refresh(player);
+        int late = bits.register("nightchat.channel.vip");
+        clearInvocations(luckPerms);
+
+        assertTrue(bits.has(player, late));
+        verify(luckPerms).hasPermission(player, "nightchat.channel.vip");
+    }
+
+    @Test
+    void invalidateDropsTheCachedResultUntilTheNextRefresh() {
+        int vip = bits.register("nightchat.channel.vip");
+        bits.refresh(player);
+        assertTrue(bits.has(player, vip));
+
+        granted.clear();
+        bits.invalidate(player.getUUID());
+        assertFalse(bits.has(player, vip)); // consulta direta já vê a mudança
+
+        granted.add("nightchat.channel.vip");
+        bits.refreshDirty(id -> id.equals(player.getUUID()) ? player : null);
+        clearInvocations(luckPerms);
+        assertTrue(bits.has(player, vip));
+        verify(luckPerms, never()).hasPermission(any(), anyString());
+    }
+
+    @Test
+    void withoutLuckPermsEveryCheckIsLive() {
+        when(luckPerms.isHooked()).thenReturn(false);
+        int vip = bits.register("nightchat.channel.vip");
+        bits.refresh(player);
+        clearInvocations(luckPerms);
+
+        assertTrue(bits.has(player, vip));
+        verify(luckPerms).hasPermission(player, "nightchat.channel.vip");
+    }
+
+    @Test
+    void bitsKeepTheirMeaningAcrossReindex() {
+        Channel a = channel("a", "nightchat.channel.a");
+        Channel b = channel("b", "nightchat.channel.b");
+        bits.index(List.of(a, b));
+        int bitOfB = b.permissionBit;
+
+        Channel b2 = channel("b", "nightchat.channel.b");
+        Channel c = channel("c", "nightchat.channel.c");
+        bits.index(List.of(b2, c));
+
+        assertEquals(bitOfB, b2.permissionBit);
+        assertFalse(Arrays.asList(a.permissionBit, b2.permissionBit).contains(c.permissionBit));
+        assertEquals(bits.register(PermissionBits.BYPASS_DELAY + ".b"), b2.bypassDelayBit);
+    }
+
+    @Test
+    void blankNodeIsNotIndexed() {
+        Channel open = channel("open", "");
+        bits.index(List.of(open));
+        assertEquals(-1, open.permissionBit);
+        assertTrue(bits.has(player, open.permissionBit, open.permission));
+    }
+
+    private static Channel channel(String id, String permission) {
+        return TestChannels.of(id, ChannelType.GLOBAL, permission);
+    }
+}
@@ -0,0 +1,149 @@
+package org.night.nightchat.chat;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlayerGridTest {
+
+    private final PlayerGrid grid = new PlayerGrid();
+    private final ServerLevel overworld = mock(ServerLevel.class);
+    private final ServerLevel nether = mock(ServerLevel.class);
+
+    @Test
+    void findsPlayersWithinRadiusAcrossCells() {
+        ServerPlayer a = player(overworld, 0, 64, 0);
+        ServerPlayer b = player(overworld, 30, 64, 0);   // duas células ao lado, dentro do raio
+        ServerPlayer c = player(overworld, 60, 64, 0);   // fora do raio
+        ServerPlayer d = player(overworld, 25, 64, 25);  // no quadrado do raio, fora do círculo
+        grid.update(a);
+        grid.update(b);
+        grid.update(c);
+        grid.update(d);
+
+        List<ServerPlayer> out = query(overworld, 0, 64, 0, 25);
+        assertEquals(List.of(a), out);
+
+        out = query(overworld, 0, 64, 0, 32);
+        assertEquals(2, out.size());
+        assertTrue(out.contains(a) && out.contains(b));
+    }
+
+    @Test
+    void usesTheVerticalDistanceToo() {
+        ServerPlayer high = player(overworld, 0, 200, 0);
+        grid.update(high);
+        assertEquals(List.of(), query(overworld, 0, 64, 0, 100));
+        assertEquals(List.of(high), query(overworld, 0, 64, 0, 150));
+    }
+
+    @Test
+    void followsAPlayerMovingToAnotherCell() {
+        ServerPlayer p = player(overworld, 0, 64, 0);
+        grid.update(p);
+        move(p, 500, 64, 500);
+        grid.update(p);
+
+        assertEquals(List.of(), query(overworld, 0, 64, 0, 50));
+        assertEquals(List.of(p), query(overworld, 500, 64, 500, 10));
+    }
+
+    @Test
+    void removedPlayersAreNoLongerFound() {
+        ServerPlayer p = player(overworld, 0, 64, 0);
+        grid.update(p);
+        grid.remove(p.getUUID());
+        assertEquals(List.of(), query(overworld, 0, 64, 0, 50));
+    }
+
+    @Test
+    void skipsEntitiesMarkedRemoved() {
+        ServerPlayer p = player(overworld, 0, 64, 0);
+        grid.update(p);
+        when(p.isRemoved()).thenReturn(true);
+        assertEquals(List.of(), query(overworld, 0, 64, 0, 50));
+    }
+
+    @Test
+    void keepsLevelsApart() {
+        ServerPlayer here = player(overworld, 0, 64, 0);
+        ServerPlayer there = player(nether, 0, 64, 0);
+        grid.update(here);
+        grid.update(there);
+
+        assertEquals(List.of(here), query(overworld, 0, 64, 0, 10));
+        assertEquals(List.of(there), query(nether, 0, 64, 0, 10));
+
+        // Troca de mundo sai da grade antiga
+        when(there.serverLevel()).thenReturn(overworld);
+        grid.update(there);
+        assertEquals(List.of(), query(nether, 0, 64, 0, 10));
+        assertEquals(2, query(overworld, 0, 64, 0, 10).size());
+    }
+
+    @Test
+    void negativeCoordinatesLandInTheirOwnCells() {
+        ServerPlayer p = player(overworld, -1, 64, -1);
+        grid.update(p);
+        assertEquals(List.of(p), query(overworld, -1, 64, -1, 0.5));
+        assertEquals(List.of(), query(overworld, 40, 64, 40, 10));
+    }
+
+    @Test
+    void hugeRadiusOnlyExaminesOccupiedCells() {
+        ServerPlayer a = player(overworld, 0, 64, 0);
+        ServerPlayer b = player(overworld, 9_000, 64, -9_000);
+        grid.update(a);
+        grid.update(b);
+
+        List<ServerPlayer> out = new ArrayList<>();
+        int examined = grid.query(overworld, 0, 64, 0, 20_000, out);
+        assertEquals(2, examined);
+        assertEquals(2, out.size());
+        assertEquals(1, grid.queries());
+        assertEquals(2, grid.candidatesExamined());
+    }
+
+    @Test
+    void emptyLevelExaminesNothing() {
+        List<ServerPlayer> out = new ArrayList<>();
+        assertEquals(0, grid.query(overworld, 0, 64, 0, 100, out));
+        assertTrue(out.isEmpty());
+    }
+
+    private List<ServerPlayer> query(ServerLevel level, double x, double y, double z, double r) {
+        List<ServerPlayer> out = new ArrayList<>();
+        grid.query(level, x, y, z, r, out);
+        return out;
+    }
+
+    private static ServerPlayer player(ServerLevel level, double x, double y, double z) {
+        ServerPlayer p = mock(ServerPlayer.class);
+        when(p.getUUID()).thenReturn(UUID.randomUUID());
+        when(p.serverLevel()).thenReturn(level);
+        move(p, x, y, z);
+        return p;
+    }
+
+    private static void move(ServerPlayer p, double x, double y, double z) {
+        when(p.getX()).thenReturn(x);
+        when(p.getY()).thenReturn(y);
+        when(p.getZ()).thenReturn(z);
+        when(p.distanceToSqr(anyDouble(), anyDouble(), anyDouble())).thenAnswer(inv -> {
+            double dx = x - inv.<Double>getArgument(0);
+            double dy = y - inv.<Double>getArgument(1);
+            double dz = z - inv.<Double>getArgument(2);
+            return dx * dx + dy * dy + dz * dz;
+        });
+    }
+}
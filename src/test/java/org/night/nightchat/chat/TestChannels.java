@@ -0,0 +1,26 @@
+package org.night.nightchat.chat;
+
+import java.util.List;
+
+// Canais mínimos para testes: só id, tipo, permissão e (nos pagos) moeda e custo importam
+final class TestChannels {
+    private TestChannels() {}
+
+    static Channel of(String id, ChannelType type, String permission) {
+        return new Channel(id, type, permission,
+                0, 0, false, false, false,
+                false, null, 0, 0, false,
+                "", "", null, null,
+                List.of(), List.of(), null,
+                null, false, 0);
+    }
+
+    static Channel paid(String id, String currencyId, double messageCost) {
+        return new Channel(id, ChannelType.GLOBAL, "",
+                0, 0, false, false, false,
+                true, currencyId, 0, messageCost, false,
+                "", "", null, null,
+                List.of(), List.of(), null,
+                null, false, 0);
+    }
+}
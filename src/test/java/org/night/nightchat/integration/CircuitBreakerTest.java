@@ -0,0 +1,100 @@
+package org.night.nightchat.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CircuitBreakerTest {
+
+    private IntegrationGuards guards;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        guards = new IntegrationGuards();
+        // Sem timeout (chamada direta), lenta acima de 1s, abre com 3 falhas, meio-aberto após 1s
+        guards.configure(0, 1_000, 3, 1);
+        breaker = guards.breaker("test");
+    }
+
+    @Test
+    void opensAfterConsecutiveFailuresAndShortCircuits() {
+        for (int i = 0; i < 3; i++) assertEquals("failed", failing());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        AtomicInteger attempts = new AtomicInteger();
+        String v = breaker.call("op", () -> { attempts.incrementAndGet(); return "ok"; }, () -> "open", () -> "failed");
+        assertEquals("open", v);
+        assertEquals(0, attempts.get());
+        assertEquals(1, breaker.shortCircuited());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        failing();
+        failing();
+        assertEquals("ok", succeeding());
+        failing();
+        failing();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(2, breaker.consecutiveFailures());
+    }
+
+    @Test
+    void halfOpenTrialSuccessCloses() throws InterruptedException {
+        for (int i = 0; i < 3; i++) failing();
+        Thread.sleep(1_100);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        assertEquals("ok", succeeding());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.consecutiveFailures());
+    }
+
+    @Test
+    void halfOpenTrialFailureReopens() throws InterruptedException {
+        for (int i = 0; i < 3; i++) failing();
+        Thread.sleep(1_100);
+
+        assertEquals("failed", failing());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void timeoutUsesTheFailureFallback() {
+        guards.configure(50, 1_000, 3, 1);
+        String v = breaker.call("slow", () -> { Thread.sleep(500); return "late"; }, () -> "open", () -> "failed");
+        assertEquals("failed", v);
+        assertEquals(1, histogram("slow").timeouts());
+    }
+
+    @Test
+    void slowSuccessCountsAsFailure() {
+        guards.configure(0, 1, 1, 1);
+        String v = breaker.call("slow", () -> { Thread.sleep(20); return "ok"; }, () -> "open", () -> "failed");
+        assertEquals("ok", v);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void singleFallbackOverloadUsesItForBothCases() {
+        assertEquals("fallback", breaker.call("op", () -> { throw new IllegalStateException("boom"); }, () -> "fallback"));
+        assertEquals(1, histogram("op").errors());
+    }
+
+    private String failing() {
+        return breaker.call("op", () -> { throw new IllegalStateException("boom"); }, () -> "open", () -> "failed");
+    }
+
+    private String succeeding() {
+        return breaker.call("op", () -> "ok", () -> "open", () -> "failed");
+    }
+
+    private LatencyHistogram histogram(String name) {
+        for (LatencyHistogram h : breaker.calls()) if (h.name.equals(name)) return h;
+        throw new AssertionError("no histogram " + name);
+    }
+}
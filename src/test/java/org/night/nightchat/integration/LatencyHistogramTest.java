@@ -0,0 +1,52 @@
+package org.night.nightchat.integration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyHistogramTest {
+
+    private static final long MICRO = 1_000L;
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram h = new LatencyHistogram("x");
+        assertEquals(0, h.count());
+        assertEquals(0.0, h.avgMillis());
+        assertEquals(0.0, h.percentileMillis(0.99));
+    }
+
+    @Test
+    void percentilesReportTheBucketUpperBound() {
+        LatencyHistogram h = new LatencyHistogram("x");
+        for (int i = 0; i < 90; i++) h.record(200 * MICRO);
+        for (int i = 0; i < 10; i++) h.record(30 * MILLI);
+
+        assertEquals(100, h.count());
+        assertEquals(0.25, h.percentileMillis(0.50));
+        assertEquals(0.25, h.percentileMillis(0.90));
+        assertEquals(50.0, h.percentileMillis(0.99));
+        assertEquals(30.0, h.maxMillis());
+        assertEquals((90 * 0.2 + 10 * 30.0) / 100, h.avgMillis(), 1e-9);
+    }
+
+    @Test
+    void valuesPastTheLastBoundReportTheMax() {
+        LatencyHistogram h = new LatencyHistogram("x");
+        h.record(100 * MICRO);
+        h.record(2_000 * MILLI);
+        assertEquals(2_000.0, h.percentileMillis(1.0));
+    }
+
+    @Test
+    void countsErrorsAndTimeoutsSeparately() {
+        LatencyHistogram h = new LatencyHistogram("x");
+        h.error();
+        h.timeout();
+        h.timeout();
+        assertEquals(1, h.errors());
+        assertEquals(2, h.timeouts());
+        assertEquals(0, h.count());
+    }
+}
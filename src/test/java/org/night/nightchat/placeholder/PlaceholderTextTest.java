@@ -0,0 +1,138 @@
+package org.night.nightchat.placeholder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaceholderTextTest {
+
+    private final PlaceholderRegistry registry = new PlaceholderRegistry();
+
+    @BeforeEach
+    void setUp() {
+        registry.register("player", (ctx, params) -> "P[" + params + "]");
+        registry.register("nighteconomy", (ctx, params) -> "E[" + params + "]");
+    }
+
+    @Test
+    void textWithoutPercentIsStatic() {
+        PlaceholderText t = PlaceholderText.parse("&7[VIP]");
+        assertTrue(t.isStatic());
+        assertEquals("&7[VIP]", t.raw);
+        assertEquals("&7[VIP]", resolve(t));
+        assertTrue(t.allMatch(ph -> false));
+    }
+
+    @Test
+    void nullParsesAsEmpty() {
+        PlaceholderText t = PlaceholderText.parse(null);
+        assertTrue(t.isStatic());
+        assertEquals("", t.raw);
+    }
+
+    @Test
+    void loosePercentSignsAreNotPlaceholders() {
+        assertTrue(PlaceholderText.parse("100% sure, 50%").isStatic());
+    }
+
+    @Test
+    void splitsNamespaceAndParams() {
+        PlaceholderText t = PlaceholderText.parse("%player% has %NightEconomy_coins_balance%!");
+        assertFalse(t.isStatic());
+        assertTrue(t.usesNamespace("player"));
+        assertTrue(t.usesNamespace("nighteconomy"));
+        assertFalse(t.usesNamespace("luckperms"));
+        assertEquals("P[] has E[coins_balance]!", resolve(t));
+    }
+
+    @Test
+    void unresolvedPlaceholdersKeepTheirText() {
+        registry.register("quiet", (ctx, params) -> null);
+        registry.register("broken", (ctx, params) -> { throw new IllegalStateException("boom"); });
+        PlaceholderText t = PlaceholderText.parse("[%OtherMod_x%][%quiet_y%][%broken_z%]");
+        assertEquals("[%OtherMod_x%][%quiet_y%][]", resolve(t));
+    }
+
+    @Test
+    void eachPlaceholderResolvesOncePerMessage() {
+        AtomicInteger calls = new AtomicInteger();
+        registry.register("counter", (ctx, params) -> String.valueOf(calls.incrementAndGet()));
+        PlaceholderContext ctx = new PlaceholderContext(null, null, null, null);
+
+        assertEquals("1 1 2", PlaceholderText.parse("%counter_a% %COUNTER_A% %counter_b%").resolve(registry, ctx));
+        assertEquals("1", registry.expand("%counter_a%", ctx));
+        assertEquals("3", registry.expand("%counter_a%", new PlaceholderContext(null, null, null, null)));
+    }
+
+    @Test
+    void unregisterRemovesTheNamespace() {
+        registry.unregister("PLAYER");
+        assertEquals("%player%", resolve(PlaceholderText.parse("%player%")));
+    }
+
+    @Test
+    void allMatchStopsAtTheFirstMiss() {
+        PlaceholderText t = PlaceholderText.parse("%a% %b% %c%");
+        List<String> seen = new ArrayList<>();
+        assertFalse(t.allMatch(ph -> seen.add(ph.namespace) && !ph.namespace.equals("b")));
+        assertEquals(List.of("a", "b"), seen);
+    }
+
+    @Test
+    void builtinStability() {
+        PlaceholderRegistry builtins = new PlaceholderRegistry();
+        BuiltinPlaceholders.registerAll(builtins);
+
+        assertTrue(stable(builtins, "%player%"));
+        assertFalse(stable(builtins, "%player_click%"));
+        assertTrue(stable(builtins, "%luckperms_prefix% %luckperms_suffix% %luckperms_meta_rank%"));
+        assertFalse(stable(builtins, "%luckperms_prefix% %luckperms_other%"));
+        assertFalse(stable(builtins, "%nighteconomy_coins%"));
+        assertFalse(stable(builtins, "%othermod_value%"));
+        assertTrue(stable(builtins, "no placeholders"));
+    }
+
+    @Test
+    void resolverWithoutDeclaredStabilityIsUnstable() {
+        registry.register("othermod", (ctx, params) -> "x");
+        assertFalse(stable(registry, "%othermod_value%"));
+
+        registry.register("othermod", (ctx, params) -> "x", params -> params.equals("value"));
+        assertTrue(stable(registry, "%othermod_value%"));
+
+        registry.unregister("othermod");
+        assertFalse(stable(registry, "%othermod_value%"));
+    }
+
+    @Test
+    void versionChangesOnRegisterAndUnregister() {
+        int v0 = registry.version();
+        registry.register("a", (ctx, params) -> "");
+        int v1 = registry.version();
+        registry.unregister("a");
+        int v2 = registry.version();
+        assertTrue(v0 != v1 && v1 != v2);
+    }
+
+    @Test
+    void rejectsNamespacesWithUnderscore() {
+        assertThrows(IllegalArgumentException.class, () -> registry.register("my_mod", (ctx, params) -> ""));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("", (ctx, params) -> ""));
+    }
+
+    private String resolve(PlaceholderText t) {
+        return t.resolve(registry, new PlaceholderContext(null, null, null, null));
+    }
+
+    private static boolean stable(PlaceholderRegistry registry, String text) {
+        return PlaceholderText.parse(text).allMatch(registry::isStable);
+    }
+}
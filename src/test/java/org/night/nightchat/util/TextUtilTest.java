@@ -0,0 +1,88 @@
+package org.night.nightchat.util;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.TextColor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextUtilTest {
+
+    @Test
+    void plainTextIsASingleUnstyledLiteral() {
+        List<Component> parts = TextUtil.parseLegacy("hello").getSiblings();
+        assertEquals(1, parts.size());
+        assertEquals("hello", parts.get(0).getString());
+        assertTrue(parts.get(0).getStyle().isEmpty());
+    }
+
+    @Test
+    void colorCodesSplitTheText() {
+        MutableComponent c = TextUtil.parseLegacy("&aGreen §cRed");
+        List<Component> parts = c.getSiblings();
+        assertEquals("Green Red", c.getString());
+        assertEquals(2, parts.size());
+        assertEquals(TextColor.fromLegacyFormat(ChatFormatting.GREEN), parts.get(0).getStyle().getColor());
+        assertEquals(TextColor.fromLegacyFormat(ChatFormatting.RED), parts.get(1).getStyle().getColor());
+    }
+
+    @Test
+    void formatStacksAndColorClearsIt() {
+        List<Component> parts = TextUtil.parseLegacy("&e&lBold&oBoth&bPlain").getSiblings();
+        assertEquals(3, parts.size());
+        assertTrue(parts.get(0).getStyle().isBold());
+        assertTrue(parts.get(1).getStyle().isBold() && parts.get(1).getStyle().isItalic());
+        assertFalse(parts.get(2).getStyle().isBold());
+        assertEquals(TextColor.fromLegacyFormat(ChatFormatting.AQUA), parts.get(2).getStyle().getColor());
+    }
+
+    @Test
+    void resetDropsEverything() {
+        List<Component> parts = TextUtil.parseLegacy("&c&lA&rB").getSiblings();
+        assertTrue(parts.get(1).getStyle().isEmpty());
+    }
+
+    @Test
+    void hexColorsInBothFormats() {
+        List<Component> parts = TextUtil.parseLegacy("&#FF8800one&x&0&0&f&f&0&0two").getSiblings();
+        assertEquals(2, parts.size());
+        assertEquals(0xFF8800, parts.get(0).getStyle().getColor().getValue());
+        assertEquals(0x00FF00, parts.get(1).getStyle().getColor().getValue());
+    }
+
+    @Test
+    void invalidCodesStayLiteral() {
+        MutableComponent c = TextUtil.parseLegacy("50&z off &#12 end&");
+        assertEquals("50&z off &#12 end&", c.getString());
+    }
+
+    @Test
+    void styleCarriesOverThroughTheState() {
+        TextUtil.StyleState state = new TextUtil.StyleState();
+        TextUtil.parseLegacy("&e[Global] ", state);
+        List<Component> body = TextUtil.parseLegacy("hi", state).getSiblings();
+        assertEquals(TextColor.fromLegacyFormat(ChatFormatting.YELLOW), body.get(0).getStyle().getColor());
+    }
+
+    @Test
+    void emptyInputGivesAnEmptyComponent() {
+        assertEquals("", TextUtil.parseLegacy("").getString());
+        assertEquals("", TextUtil.parseLegacy(null).getString());
+    }
+
+    @Test
+    void legacyToComponentReusesTheCachedResult() {
+        TextUtil.clearCache();
+        Component first = TextUtil.legacyToComponent("&6cached");
+        assertSame(first, TextUtil.legacyToComponent("&6cached"));
+        assertEquals(1, TextUtil.cacheSize());
+        assertTrue(TextUtil.legacyToComponent("").getStyle().isEmpty());
+    }
+}